@@ -1,68 +1,179 @@
+import java.io.*;
 import java.util.*;
 
-public class AGScheduler {
+public class AGScheduler implements Scheduler {
+
+    final int contextSwitch;
+    private final Timeline timeline = new Timeline();
+    private SchedulerMetrics metrics;
+
+    public AGScheduler(int contextSwitch) {
+        this.contextSwitch = contextSwitch;
+    }
+
+    @Override
+    public String name() {
+        return "AG";
+    }
+
+    @Override
+    public ScheduleResult schedule(ProcessTable table) {
+        timeline.clear();
+        schedule(table, contextSwitch, timeline, metrics);
+        return ScheduleResult.of(name(), table, timeline);
+    }
+
+    @Override
+    public Scheduler withMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
 
     public static void schedule(List<AGProcess> processes, int contextSwitch) {
-        int time = 0;
-        int completed = 0;
+        processes.sort(Comparator.comparingInt(p -> p.arrivalTime));
+        ProcessTable table = ProcessTable.of(processes);
+        Timeline timeline = new Timeline();
+        schedule(table, contextSwitch, timeline);
+        table.copyResultsTo(processes);
+
         List<String> executionOrder = new ArrayList<>();
-        Queue<AGProcess> readyQueue = new LinkedList<>();
+        for (int i = 0; i < timeline.size; i++) {
+            if (!timeline.isContextSwitch(i)) {
+                executionOrder.add(table.name[timeline.process[i]]);
+            }
+        }
+        printResults(processes, executionOrder);
+    }
 
-        processes.sort(Comparator.comparingInt(p -> p.arrivalTime));
+    // Runs directly on the table's columns; quanta and their history are kept in the table.
+    // If a timeline is given, every quantum and every context switch becomes a segment of it.
+    public static void schedule(ProcessTable table, int contextSwitch, Timeline timeline) {
+        schedule(table, contextSwitch, timeline, null);
+    }
 
-        while (completed < processes.size()) {
+    static void schedule(ProcessTable table, int contextSwitch, Timeline timeline, SchedulerMetrics metrics) {
+        table.reset();
+        new Run(table, contextSwitch, timeline).withMetrics(metrics).submitAll().advance(Integer.MAX_VALUE);
+    }
 
-            for (AGProcess p : processes) {
-                if (p.arrivalTime <= time && p.remainingTime > 0 && !readyQueue.contains(p)) {
-                    readyQueue.add(p);
-                }
-            }
+    // Resumable AG core, see SchedulerRun
+    static class Run extends SchedulerRun {
+        final int contextSwitch;
+        final ReadyQueue readyQueue;
 
-            if (readyQueue.isEmpty()) {
-                time++;
-                continue;
-            }
+        int current = -1; // process in its quantum, -1 when the next one has to be picked
+        int timeInQuantum;
+        int quantum;
+        int q25;
+        int q50;
+        boolean checksPending = false; // the last step ended at a limit, checks not done yet
 
-            AGProcess current = readyQueue.poll();
-            int timeInQuantum = 0;
-            
-            int quantum = current.quantum;
-            int q25 = (int) Math.ceil(quantum * 0.25);
-            int q50 = q25 + (int) Math.ceil(quantum * 0.25); 
+        Run(ProcessTable table, int contextSwitch, Timeline timeline) {
+            super(table, timeline);
+            this.contextSwitch = contextSwitch;
+            this.readyQueue = new ReadyQueue(table);
+        }
+
+        @Override
+        void submitted(int id) {
+            table.quantumHistory.record(id, table.currentQuantum[id]);
+        }
 
+        @Override
+        void advance(int limit) {
+            int[] remaining = table.remaining;
+            int[] quanta = table.currentQuantum;
+            int[] priority = table.priority;
 
-            while (current.remainingTime > 0 && timeInQuantum < quantum) {
-                
-                executionOrder.add(current.name);
-                current.remainingTime--;
-                time++;
-                timeInQuantum++;
+            while (true) {
+                if (current == -1) {
+                    if (time >= limit) {
+                        return;
+                    }
+                    addNewArrivals();
 
-                addNewArrivals(processes, readyQueue, time, current);
+                    if (readyQueue.isEmpty()) {
+                        if (arrivals.peekTime() >= limit) {
+                            return;
+                        }
+                        if (metrics != null) {
+                            metrics.idle(time, arrivals.peekTime());
+                        }
+                        time = arrivals.peekTime();
+                        continue;
+                    }
 
-                if (current.remainingTime == 0) {
-                    current.finish(time);
-                    completed++;
-                    break;
+                    startQuantum(readyQueue.poll(), time);
+                }
+                if (time >= limit) {
+                    return;
+                }
+
+                if (!checksPending) {
+                    // Run up to the next point where a check can change outcome:
+                    // completion, quantum end, phase boundary or the next arrival
+                    int step = Math.min(remaining[current], quantum - timeInQuantum);
+                    if (timeInQuantum < q25) {
+                        step = Math.min(step, q25 - timeInQuantum);
+                    } else if (timeInQuantum < q50) {
+                        step = Math.min(step, q50 - timeInQuantum);
+                    }
+                    if (!arrivals.isEmpty()) {
+                        step = Math.min(step, Math.max(1, arrivals.peekTime() - time));
+                    }
+                    // Stopping early at limit is safe: inside a step the checks below cannot fire
+                    step = Math.min(step, limit - time);
+
+                    if (timeline != null) {
+                        timeline.run(current, time, time + step);
+                    }
+                    remaining[current] -= step;
+                    time += step;
+                    timeInQuantum += step;
+
+                    // Processes arriving at limit may still be submitted, so the checks wait
+                    if (time == limit && remaining[current] > 0) {
+                        checksPending = true;
+                        return;
+                    }
+                }
+                checksPending = false;
+
+                // A process going off to I/O keeps its quantum, only the last burst ends it. What
+                // arrives at this time is admitted after it, it may not all be submitted yet.
+                if (remaining[current] == 0) {
+                    boolean completed = burstDone(current, time);
+                    if (completed) {
+                        finish(table, current);
+                    }
+                    if (timeline != null) {
+                        timeline.end(completed ? Timeline.COMPLETION : Timeline.BLOCKED);
+                    }
+                    current = -1;
+                    continue;
                 }
 
+                addNewArrivals();
+
                 // Check Priority Phase 
                 if (timeInQuantum >= q25 && timeInQuantum < q50) {
-                    AGProcess bestPriority = getBestPriorityProcess(readyQueue);
-                    if (bestPriority != null && bestPriority.priority < current.priority) {
-                        int remainingQuantum = current.quantum - timeInQuantum;
-                        current.priorityPreempted(remainingQuantum);
+                    int bestPriority = readyQueue.bestPriority();
+                    if (bestPriority != -1 && priority[bestPriority] < priority[current]) {
+                        int remainingQuantum = quanta[current] - timeInQuantum;
+                        priorityPreempted(table, current, remainingQuantum);
                         readyQueue.add(current);
                         
                         readyQueue.remove(bestPriority);
-                        current = bestPriority;
-                        
-                        // Reset for new process
-                        timeInQuantum = 0;
-                        quantum = current.quantum;
-                        q25 = (int) Math.ceil(quantum * 0.25);
-                        q50 = q25 + (int) Math.ceil(quantum * 0.25);
+                        startQuantum(bestPriority, time + contextSwitch);
                         
+                        if (timeline != null) {
+                            timeline.end(Timeline.PRIORITY);
+                            timeline.contextSwitch(current, time, time + contextSwitch);
+                        }
+                        if (metrics != null) {
+                            metrics.preempted(Timeline.PRIORITY);
+                            metrics.contextSwitch(contextSwitch);
+                        }
                         time += contextSwitch;
                         continue; 
                     }
@@ -70,64 +181,271 @@ public class AGScheduler {
 
                 // Check SJF Phase 
                 if (timeInQuantum >= q50) {
-                    AGProcess shortestJob = getShortestJob(readyQueue);
-                    if (shortestJob != null && shortestJob.remainingTime < current.remainingTime) {
-                        int remainingQuantum = current.quantum - timeInQuantum;
-                        current.sjfPreempted(remainingQuantum);
+                    int shortestJob = readyQueue.shortestJob();
+                    if (shortestJob != -1 && remaining[shortestJob] < remaining[current]) {
+                        int remainingQuantum = quanta[current] - timeInQuantum;
+                        sjfPreempted(table, current, remainingQuantum);
                         readyQueue.add(current);
 
                         readyQueue.remove(shortestJob);
-                        current = shortestJob;
-
-                        // Reset for new process
-                        timeInQuantum = 0;
-                        quantum = current.quantum;
-                        q25 = (int) Math.ceil(quantum * 0.25);
-                        q50 = q25 + (int) Math.ceil(quantum * 0.25);
+                        startQuantum(shortestJob, time + contextSwitch);
 
+                        if (timeline != null) {
+                            timeline.end(Timeline.SJF);
+                            timeline.contextSwitch(current, time, time + contextSwitch);
+                        }
+                        if (metrics != null) {
+                            metrics.preempted(Timeline.SJF);
+                            metrics.contextSwitch(contextSwitch);
+                        }
                         time += contextSwitch;
                         continue;
                     }
                 }
+
+                // Quantum Expired 
+                if (timeInQuantum == quantum) {
+                    quantumExpired(table, current);
+                    readyQueue.add(current);
+                    if (timeline != null) {
+                        // the next quantum goes to the head of the FIFO, possibly this process again
+                        timeline.end(Timeline.QUANTUM);
+                        timeline.contextSwitch(readyQueue.peek(), time, time + contextSwitch);
+                    }
+                    time += contextSwitch;
+                    if (metrics != null) {
+                        metrics.preempted(Timeline.QUANTUM);
+                        metrics.contextSwitch(contextSwitch);
+                    }
+                    current = -1;
+                }
             }
+        }
+
+        @Override
+        void saveState(DataOutput out) throws IOException {
+            out.writeInt(current);
+            out.writeInt(timeInQuantum);
+            out.writeInt(quantum);
+            out.writeInt(q25);
+            out.writeInt(q50);
+            out.writeBoolean(checksPending);
+            readyQueue.save(out);
+        }
 
-            // Quantum Expired 
-            if (current.remainingTime > 0 && timeInQuantum == quantum) {
-                current.quantumExpired();
-                readyQueue.add(current);
-                time += contextSwitch;
+        @Override
+        void restoreState(DataInput in) throws IOException {
+            current = in.readInt();
+            timeInQuantum = in.readInt();
+            quantum = in.readInt();
+            q25 = in.readInt();
+            q50 = in.readInt();
+            checksPending = in.readBoolean();
+            readyQueue.restore(in);
+        }
+
+        @Override
+        void resetState() {
+            current = -1;
+            timeInQuantum = 0;
+            quantum = 0;
+            q25 = 0;
+            q50 = 0;
+            checksPending = false;
+            readyQueue.clear();
+        }
+
+        @Override
+        int readyCount() {
+            return readyQueue.size();
+        }
+
+        @Override
+        int runningProcess() {
+            return current;
+        }
+
+        // After the checks that are due, the next point is the one advance() would step to
+        @Override
+        int nextEvent() {
+            if (current == -1) {
+                return readyQueue.isEmpty() ? Integer.MAX_VALUE : time;
             }
+            int[] remaining = table.remaining;
+            if (checksPending) {
+                if (timeInQuantum == quantum) {
+                    return time;
+                }
+                int best = readyQueue.bestPriority();
+                if (timeInQuantum >= q25 && timeInQuantum < q50 && best != -1
+                        && table.priority[best] < table.priority[current]) {
+                    return time;
+                }
+                int shortest = readyQueue.shortestJob();
+                if (timeInQuantum >= q50 && shortest != -1 && remaining[shortest] < remaining[current]) {
+                    return time;
+                }
+            }
+            int step = Math.min(remaining[current], quantum - timeInQuantum);
+            if (timeInQuantum < q25) {
+                step = Math.min(step, q25 - timeInQuantum);
+            } else if (timeInQuantum < q50) {
+                step = Math.min(step, q50 - timeInQuantum);
+            }
+            return time + step;
         }
 
-        printResults(processes, executionOrder);
-    }
+        @Override
+        int steal() {
+            return readyQueue.isEmpty() ? -1 : readyQueue.poll();
+        }
 
-    private static AGProcess getBestPriorityProcess(Queue<AGProcess> queue) {
-        AGProcess best = null;
-        for (AGProcess p : queue) {
-            if (best == null || p.priority < best.priority) {
-                best = p;
+        // Joins the back of the FIFO; its quantum and history are left as they are
+        @Override
+        void adopt(int id) {
+            readyQueue.add(id);
+        }
+
+        // id gets the CPU at 'at' (after the context switch, if there is one)
+        private void startQuantum(int id, int at) {
+            if (metrics != null) {
+                metrics.dispatch(table, id, at, readyQueue.size());
             }
+            current = id;
+            timeInQuantum = 0;
+            quantum = table.currentQuantum[id];
+            q25 = (int) Math.ceil(quantum * 0.25);
+            q50 = q25 + (int) Math.ceil(quantum * 0.25);
         }
-        return best;
-    }
-    // SJF 
-    private static AGProcess getShortestJob(Queue<AGProcess> queue) {
-        AGProcess best = null;
-        for (AGProcess p : queue) {
-            if (best == null || p.remainingTime < best.remainingTime) {
-                best = p;
+
+        // The feed releases arrivals in arrival order, so they join the FIFO in that order
+        private void addNewArrivals() {
+            while (arrivals.peekTime() <= time) {
+                readyQueue.add(arrivals.poll());
             }
         }
-        return best;
     }
 
-    private static void addNewArrivals(List<AGProcess> processes, Queue<AGProcess> readyQueue, int time, AGProcess current) {
-        for (AGProcess p : processes) {
-            if (p.arrivalTime <= time && p.remainingTime > 0 && !readyQueue.contains(p) && p != current) {
-                readyQueue.add(p);
+    private static void finish(ProcessTable table, int id) {
+        table.currentQuantum[id] = 0;
+        table.quantumHistory.record(id, 0);
+    }
+
+    private static void quantumExpired(ProcessTable table, int id) {
+        table.currentQuantum[id] += 2;
+        table.quantumHistory.record(id, table.currentQuantum[id]);
+    }
+
+    private static void priorityPreempted(ProcessTable table, int id, int remainingQuantum) {
+        table.currentQuantum[id] += (int) Math.ceil(remainingQuantum / 2.0);
+        table.quantumHistory.record(id, table.currentQuantum[id]);
+    }
+
+    private static void sjfPreempted(ProcessTable table, int id, int remainingQuantum) {
+        table.currentQuantum[id] += remainingQuantum;
+        table.quantumHistory.record(id, table.currentQuantum[id]);
+    }
+
+    // FIFO ready queue with priority- and remaining-time-ordered views over the same entries.
+    // Ties in both views go to whoever was enqueued first, like a scan of the FIFO order would.
+    private static class ReadyQueue {
+        private long[] enqueuedAt;
+        private long sequence = 0;
+        private final IndexedMinHeap fifo;
+        private final IndexedMinHeap byPriority;
+        private final IndexedMinHeap byRemaining;
+
+        // Reads the table's columns on every comparison, so ids added to the table later work too
+        ReadyQueue(ProcessTable table) {
+            int n = table.size;
+            this.enqueuedAt = new long[Math.max(1, n)];
+            this.fifo = new IndexedMinHeap(n, (a, b) -> Long.compare(enqueuedAt[a], enqueuedAt[b]));
+            this.byPriority = new IndexedMinHeap(n, (a, b) -> {
+                int c = Integer.compare(table.priority[a], table.priority[b]);
+                return c != 0 ? c : Long.compare(enqueuedAt[a], enqueuedAt[b]);
+            });
+            this.byRemaining = new IndexedMinHeap(n, (a, b) -> {
+                int c = Integer.compare(table.remaining[a], table.remaining[b]);
+                return c != 0 ? c : Long.compare(enqueuedAt[a], enqueuedAt[b]);
+            });
+        }
+
+        boolean isEmpty() {
+            return fifo.isEmpty();
+        }
+
+        int size() {
+            return fifo.size();
+        }
+
+        void add(int id) {
+            if (id >= enqueuedAt.length) {
+                enqueuedAt = Arrays.copyOf(enqueuedAt, Math.max(id + 1, enqueuedAt.length * 2));
+            }
+            enqueuedAt[id] = sequence++;
+            fifo.add(id);
+            byPriority.add(id);
+            byRemaining.add(id);
+        }
+
+        void remove(int id) {
+            fifo.remove(id);
+            byPriority.remove(id);
+            byRemaining.remove(id);
+        }
+
+        int peek() {
+            return fifo.peek();
+        }
+
+        int poll() {
+            int id = fifo.peek();
+            remove(id);
+            return id;
+        }
+
+        // -1 when empty
+        int bestPriority() {
+            return byPriority.peek();
+        }
+
+        int shortestJob() {
+            return byRemaining.peek();
+        }
+
+        // Only the relative order of the enqueue stamps matters, so the queue is rebuilt from
+        // (id, stamp) pairs
+        void save(DataOutput out) throws IOException {
+            out.writeLong(sequence);
+            out.writeInt(fifo.size());
+            for (int i = 0; i < fifo.size(); i++) {
+                int id = fifo.get(i);
+                out.writeInt(id);
+                out.writeLong(enqueuedAt[id]);
             }
         }
+
+        void restore(DataInput in) throws IOException {
+            sequence = in.readLong();
+            for (int count = in.readInt(); count > 0; count--) {
+                int id = in.readInt();
+                long stamp = in.readLong();
+                if (id >= enqueuedAt.length) {
+                    enqueuedAt = Arrays.copyOf(enqueuedAt, Math.max(id + 1, enqueuedAt.length * 2));
+                }
+                enqueuedAt[id] = stamp;
+                fifo.add(id);
+                byPriority.add(id);
+                byRemaining.add(id);
+            }
+        }
+
+        void clear() {
+            sequence = 0;
+            fifo.clear();
+            byPriority.clear();
+            byRemaining.clear();
+        }
     }
 
     private static void printResults(List<AGProcess> processes, List<String> order) {
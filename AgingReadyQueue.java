@@ -0,0 +1,164 @@
+import java.io.*;
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+
+// Ready queue for preemptivePriorityScheduling with lazy aging, over process ids of a ProcessTable.
+// A queued process gains one priority level every agingInterval ticks after its agingAnchor
+// (Process.tempArrivalTime), so currentPriority only holds the priority it had at that time
+// and the effective priority is derived when it is needed.
+class AgingReadyQueue {
+    private final ProcessTable table;
+    private final int agingInterval;
+    // Processes whose agingAnchor falls in the same residue class (mod agingInterval)
+    // age on the same ticks, so their relative order never changes while queued. The heaps are
+    // indexed by residue, created the first time a residue is used and kept when cleared; live
+    // holds the residues with a non-empty heap, the only ones poll() looks at.
+    private IntHeap[] agingClasses = new IntHeap[0];
+    private int[] live = new int[4];
+    private int liveCount;
+    // Processes already aged down to priority 1 only compete on arrival time and name.
+    private final IntHeap floor;
+    private final IntBinaryOperator classOrder;
+    private int size;
+
+    AgingReadyQueue(ProcessTable table, int agingInterval) {
+        this.table = table;
+        this.agingInterval = agingInterval;
+        this.floor = new IntHeap(16, this::breakTie);
+        this.classOrder = (a, b) -> {
+            int c = Integer.compare(table.currentPriority[a] + Math.floorDiv(table.agingAnchor[a], agingInterval),
+                    table.currentPriority[b] + Math.floorDiv(table.agingAnchor[b], agingInterval));
+            return c != 0 ? c : breakTie(a, b);
+        };
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(int id) {
+        int residue = Math.floorMod(table.agingAnchor[id], agingInterval);
+        if (residue >= agingClasses.length) {
+            agingClasses = Arrays.copyOf(agingClasses,
+                    (int) Math.min(agingInterval, Math.max(residue + 1L, 2L * agingClasses.length)));
+        }
+        IntHeap heap = agingClasses[residue];
+        if (heap == null) {
+            heap = agingClasses[residue] = new IntHeap(16, classOrder);
+        }
+        if (heap.isEmpty()) {
+            if (liveCount == live.length) {
+                live = Arrays.copyOf(live, liveCount * 2);
+            }
+            live[liveCount++] = residue;
+        }
+        heap.add(id);
+        size++;
+    }
+
+    // Removes the process with the best effective priority at currentTime and
+    // applies the aging it accumulated while queued to its priority.
+    int poll(int currentTime) {
+        if (size == 0) {
+            return -1;
+        }
+        for (int i = 0; i < liveCount; i++) {
+            IntHeap heap = agingClasses[live[i]];
+            while (!heap.isEmpty() && effectivePriority(heap.peek(), currentTime) == 1) {
+                floor.add(heap.poll());
+            }
+        }
+
+        IntHeap from = floor.isEmpty() ? null : floor;
+        int best = 1;
+        for (int i = 0; i < liveCount; i++) {
+            IntHeap heap = agingClasses[live[i]];
+            if (heap.isEmpty()) {
+                continue;
+            }
+            int top = heap.peek();
+            int priority = effectivePriority(top, currentTime);
+            if (from == null || priority < best || (priority == best && breakTie(top, from.peek()) < 0)) {
+                from = heap;
+                best = priority;
+            }
+        }
+
+        int id = from.poll();
+        for (int i = liveCount - 1; i >= 0; i--) {
+            if (agingClasses[live[i]].isEmpty()) {
+                live[i] = live[--liveCount];
+            }
+        }
+        size--;
+
+        int agedTimes = Math.floorDiv(currentTime - table.agingAnchor[id], agingInterval);
+        if (agedTimes > 0) {
+            table.currentPriority[id] = Math.max(1, table.currentPriority[id] - agedTimes);
+            table.agingAnchor[id] += agedTimes * agingInterval;
+        }
+        return id;
+    }
+
+    private int effectivePriority(int id, int currentTime) {
+        int agedTimes = Math.floorDiv(currentTime - table.agingAnchor[id], agingInterval);
+        int priority = table.currentPriority[id];
+        return agedTimes == 0 ? priority : Math.max(1, priority - agedTimes);
+    }
+
+    // Empty again; the aging class heaps are kept for reuse
+    void clear() {
+        for (int i = 0; i < liveCount; i++) {
+            agingClasses[live[i]].clear();
+        }
+        liveCount = 0;
+        floor.clear();
+        size = 0;
+    }
+
+    // Keeps the heap layouts and the class order, so processes the order cannot tell apart
+    // (same priority, arrival and name) come out of a restored queue the same way
+    void save(DataOutput out) throws IOException {
+        saveHeap(out, floor);
+        out.writeInt(liveCount);
+        for (int i = 0; i < liveCount; i++) {
+            saveHeap(out, agingClasses[live[i]]);
+        }
+    }
+
+    // Into an empty queue over the restored table
+    void restore(DataInput in) throws IOException {
+        restoreHeap(in, floor);
+        for (int classes = in.readInt(); classes > 0; classes--) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                add(in.readInt());
+            }
+        }
+    }
+
+    private void saveHeap(DataOutput out, IntHeap heap) throws IOException {
+        out.writeInt(heap.size());
+        for (int i = 0; i < heap.size(); i++) {
+            out.writeInt(heap.get(i));
+        }
+    }
+
+    private void restoreHeap(DataInput in, IntHeap heap) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            heap.add(in.readInt());
+        }
+        size += count;
+    }
+
+    private int breakTie(int a, int b) {
+        if (table.arrival[a] != table.arrival[b])
+            return Integer.compare(table.arrival[a], table.arrival[b]);
+        return table.name[a].compareTo(table.name[b]);
+    }
+}
@@ -0,0 +1,151 @@
+import java.io.*;
+import java.util.*;
+
+// Processes that have been handed to a SchedulerRun but not admitted yet, released in
+// (arrival, id) order. Ids added in that order (a pre-sorted batch, or a live feed with
+// non-decreasing arrival times) only go through a FIFO; the rare out-of-order one goes
+// into a heap that is merged in on the way out.
+//
+// Processes coming back from I/O are merged in the same way, in (return time, id) order, so the
+// engines admit them exactly like arrivals (see IoDevices). Only a workload with I/O bursts
+// pays for more than a check of devices.isIdle().
+class ArrivalFeed {
+    private final ProcessTable table;
+    private final IoDevices devices;
+    private int[] inOrder;
+    private int head = 0;
+    private int tail = 0;
+    private final IntHeap outOfOrder;
+    private int last = -1;
+    private boolean borrowed = false; // inOrder is a caller's array (see addSorted)
+    private boolean returned = false;
+
+    ArrivalFeed(ProcessTable table, int capacity, IoDevices devices) {
+        this.table = table;
+        this.devices = devices;
+        this.inOrder = new int[Math.max(1, capacity)];
+        this.outOfOrder = new IntHeap(16, this::compare);
+    }
+
+    boolean isEmpty() {
+        return head == tail && outOfOrder.isEmpty() && devices.isIdle();
+    }
+
+    int size() {
+        return tail - head + outOfOrder.size() + devices.size();
+    }
+
+    void add(int id) {
+        if (last != -1 && compare(last, id) > 0) {
+            outOfOrder.add(id);
+            return;
+        }
+        if (tail == inOrder.length || borrowed) {
+            // always a fresh array: the current one may be a caller's
+            int pending = tail - head;
+            int[] target = new int[Math.max(16, pending * 2)];
+            System.arraycopy(inOrder, head, target, 0, pending);
+            inOrder = target;
+            head = 0;
+            tail = pending;
+            borrowed = false;
+        }
+        inOrder[tail++] = id;
+        last = id;
+    }
+
+    // The first count ids, already sorted by (arrival, id), e.g. ProcessTable.arrivalOrder(); an
+    // empty feed reads the array in place and never writes to it
+    void addSorted(int[] ids, int count) {
+        if (head == tail && outOfOrder.isEmpty() && last == -1) {
+            inOrder = ids;
+            borrowed = true;
+            head = 0;
+            tail = count;
+            last = count == 0 ? -1 : ids[count - 1];
+        } else {
+            for (int i = 0; i < count; i++) {
+                add(ids[i]);
+            }
+        }
+    }
+
+    // Empty again, keeping the buffers; the devices are cleared with the run
+    void clear() {
+        head = 0;
+        tail = 0;
+        last = -1;
+        outOfOrder.clear();
+    }
+
+    // Arrival time of the next process, Integer.MAX_VALUE when there is none
+    int peekTime() {
+        int next = nextArrival();
+        return devices.isIdle() ? next : Math.min(next, devices.peekTime());
+    }
+
+    int poll() {
+        if (!devices.isIdle()) {
+            int returns = devices.peekTime();
+            int arrives = nextArrival();
+            if (returns < arrives || returns == arrives && devices.peek() < peek()) {
+                returned = true;
+                return devices.poll();
+            }
+        }
+        returned = false;
+        if (!outOfOrder.isEmpty() && (head == tail || compare(outOfOrder.peek(), inOrder[head]) < 0)) {
+            return outOfOrder.poll();
+        }
+        if (head == tail) {
+            throw new NoSuchElementException();
+        }
+        return inOrder[head++];
+    }
+
+    // Whether the last poll() gave a process back from I/O rather than a new arrival
+    boolean returned() {
+        return returned;
+    }
+
+    // The release order only depends on the ids, so they are written as a plain list (the
+    // devices save their own state)
+    void save(DataOutput out) throws IOException {
+        out.writeInt(tail - head + outOfOrder.size());
+        for (int i = head; i < tail; i++) {
+            out.writeInt(inOrder[i]);
+        }
+        for (int i = 0; i < outOfOrder.size(); i++) {
+            out.writeInt(outOfOrder.get(i));
+        }
+    }
+
+    void restore(DataInput in) throws IOException {
+        for (int count = in.readInt(); count > 0; count--) {
+            add(in.readInt());
+        }
+    }
+
+    private int nextArrival() {
+        if (outOfOrder.isEmpty()) {
+            return head == tail ? Integer.MAX_VALUE : table.arrival[inOrder[head]];
+        }
+        return table.arrival[peek()];
+    }
+
+    private int peek() {
+        if (head == tail) {
+            return outOfOrder.peek();
+        }
+        if (outOfOrder.isEmpty()) {
+            return inOrder[head];
+        }
+        int a = inOrder[head], b = outOfOrder.peek();
+        return compare(a, b) <= 0 ? a : b;
+    }
+
+    private int compare(int a, int b) {
+        int c = Integer.compare(table.arrival[a], table.arrival[b]);
+        return c != 0 ? c : Integer.compare(a, b);
+    }
+}
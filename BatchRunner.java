@@ -0,0 +1,289 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Runs every scheduler on every workload file in parallel and prints one aggregated report.
+//
+//   java BatchRunner <dir | glob>... [-s SJF,RR,Priority,AG,MLFQ,CFS] [-j threads | -j virtual] [-o runs.csv]
+//                    [-m metrics.json | metrics.prom]
+//
+// A directory stands for all .json and .trace files in it; a glob (e.g. "traces/night-*.json")
+// may only use wildcards in its last path element. Each file is loaded once into a ProcessTable
+// and every scheduler then runs on its own copy of it, one task per scheduler x file, on a fixed
+// pool of -j threads (default: one per core) or on virtual threads. Schedulers run through the
+// Scheduler interface, so nothing is printed while the batch runs; settings (context switch,
+// RR quantum, aging interval) come from each file. Schedulers whose settings are missing from a file are
+// skipped for that file (e.g. RR and Priority on AG/ files).
+//
+// -m collects SchedulerMetrics for every run and writes them summed up per scheduler, as
+// Prometheus text for .prom/.txt files and as JSON otherwise.
+public class BatchRunner {
+
+    static final String[] SCHEDULERS = {"SJF", "RR", "Priority", "AG", "MLFQ", "CFS"};
+
+    public static void main(String[] args) throws Exception {
+        List<String> inputs = new ArrayList<>();
+        String[] schedulers = SCHEDULERS;
+        String threads = String.valueOf(Runtime.getRuntime().availableProcessors());
+        String out = null;
+        String metricsOut = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-s" -> schedulers = args[++i].split(",");
+                case "-j" -> threads = args[++i];
+                case "-o" -> out = args[++i];
+                case "-m" -> metricsOut = args[++i];
+                default -> inputs.add(args[i]);
+            }
+        }
+        List<File> files = new ArrayList<>();
+        for (String input : inputs) {
+            files.addAll(expand(input));
+        }
+        if (files.isEmpty()) {
+            System.out.println("Usage: java BatchRunner <dir | glob>... [-s SJF,RR,Priority,AG,MLFQ,CFS] [-j threads | -j virtual] [-o runs.csv] "
+                    + "[-m metrics.json | metrics.prom]");
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<Run> runs;
+        try (ExecutorService pool = threads.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(Integer.parseInt(threads))) {
+            runs = runAll(pool, files, schedulers, metricsOut != null);
+        }
+        long wallNanos = System.nanoTime() - start;
+
+        if (out != null) {
+            try (PrintWriter csv = new PrintWriter(new FileWriter(out))) {
+                csv.println("file,scheduler,status,processes,avgWaiting,avgTurnaround,makespan,nanos");
+                for (Run r : runs) {
+                    csv.printf(Locale.ROOT, "%s,%s,%s,%d,%.3f,%.3f,%d,%d%n", r.file, r.scheduler, r.status(),
+                            r.processes, r.averageWaiting, r.averageTurnaround, r.makespan, r.nanos);
+                }
+            }
+        }
+        if (metricsOut != null) {
+            Map<String, SchedulerMetrics> byScheduler = new LinkedHashMap<>();
+            for (String scheduler : schedulers) {
+                byScheduler.put(scheduler, new SchedulerMetrics());
+            }
+            for (Run r : runs) {
+                if (r.metrics != null) {
+                    byScheduler.get(r.scheduler).add(r.metrics);
+                }
+            }
+            SchedulerMetrics.write(new File(metricsOut), byScheduler);
+        }
+        printReport(runs, files.size(), schedulers, wallNanos);
+    }
+
+    // Lists the workload files a directory or glob argument stands for, sorted by name
+    static List<File> expand(String input) throws IOException {
+        File file = new File(input);
+        PathMatcher matcher;
+        Path dir;
+        if (file.isDirectory()) {
+            dir = file.toPath();
+            matcher = p -> p.getFileName().toString().endsWith(".json") || p.getFileName().toString().endsWith(".trace");
+        } else if (file.isFile()) {
+            return List.of(file);
+        } else {
+            Path glob = Paths.get(input);
+            dir = glob.getParent() == null ? Paths.get(".") : glob.getParent();
+            PathMatcher names = FileSystems.getDefault().getPathMatcher("glob:" + glob.getFileName());
+            matcher = p -> names.matches(p.getFileName());
+        }
+        List<File> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                if (Files.isRegularFile(entry) && matcher.matches(entry)) {
+                    files.add(entry.toFile());
+                }
+            }
+        }
+        files.sort(Comparator.comparing(File::getPath));
+        return files;
+    }
+
+    // Loads are submitted ahead of the runs that need them, so with a FIFO pool a run only ever
+    // waits for a load that is already in progress, and only a few files are held at a time.
+    static List<Run> runAll(ExecutorService pool, List<File> files, String[] schedulers, boolean metrics) throws InterruptedException {
+        List<Future<Run>> pending = new ArrayList<>(files.size() * schedulers.length);
+        for (File file : files) {
+            Future<Workload> workload = pool.submit(() -> Workload.load(file));
+            for (String scheduler : schedulers) {
+                pending.add(pool.submit(() -> run(scheduler, file, workload, metrics)));
+            }
+        }
+        List<Run> runs = new ArrayList<>(pending.size());
+        for (Future<Run> run : pending) {
+            try {
+                runs.add(run.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return runs;
+    }
+
+    static Run run(String scheduler, File file, Future<Workload> pending, boolean metrics) throws InterruptedException {
+        Run r = new Run(file.getPath(), scheduler);
+        Workload workload;
+        try {
+            workload = pending.get();
+        } catch (ExecutionException e) {
+            r.error = "load failed: " + e.getCause().getMessage();
+            return r;
+        }
+        r.processes = workload.table.size;
+        String missing = workload.missingSetting(scheduler);
+        if (missing != null) {
+            r.error = "skipped: no " + missing;
+            r.skipped = true;
+            return r;
+        }
+
+        ProcessTable table = workload.table.copy();
+        Scheduler engine = Scheduler.create(scheduler, workload.contextSwitch, workload.rrQuantum, workload.agingInterval);
+        if (metrics) {
+            r.metrics = new SchedulerMetrics();
+            engine.withMetrics(r.metrics);
+        }
+        ScheduleResult result;
+        long start = System.nanoTime();
+        try {
+            result = engine.schedule(table);
+        } catch (RuntimeException e) {
+            r.error = e.toString();
+            r.metrics = null;
+            return r;
+        }
+        r.nanos = System.nanoTime() - start;
+        r.averageWaiting = result.averageWaiting();
+        r.averageTurnaround = result.averageTurnaround();
+        r.makespan = result.makespan();
+        return r;
+    }
+
+    static void printReport(List<Run> runs, int fileCount, String[] schedulers, long wallNanos) {
+        System.out.printf("%d files, %d runs in %.3f s%n%n", fileCount, runs.size(), wallNanos / 1e9);
+        System.out.printf("%-9s %6s %6s %6s %12s %14s %14s %12s%n",
+                "Scheduler", "Runs", "Skip", "Fail", "Processes", "avg Waiting", "avg Turnaround", "Run ms");
+        for (String scheduler : schedulers) {
+            int ok = 0, skipped = 0, failed = 0;
+            long processes = 0, nanos = 0;
+            double waiting = 0, turnaround = 0;
+            for (Run r : runs) {
+                if (!r.scheduler.equals(scheduler)) {
+                    continue;
+                }
+                if (r.skipped) {
+                    skipped++;
+                } else if (r.error != null) {
+                    failed++;
+                } else {
+                    ok++;
+                    processes += r.processes;
+                    nanos += r.nanos;
+                    // weighted by process count, i.e. the average over every process in the batch
+                    waiting += r.averageWaiting * r.processes;
+                    turnaround += r.averageTurnaround * r.processes;
+                }
+            }
+            System.out.printf("%-9s %6d %6d %6d %12d %14.3f %14.3f %12.1f%n", scheduler, ok, skipped, failed, processes,
+                    processes == 0 ? 0 : waiting / processes, processes == 0 ? 0 : turnaround / processes, nanos / 1e6);
+        }
+
+        boolean header = false;
+        for (Run r : runs) {
+            if (r.error != null && !r.skipped) {
+                if (!header) {
+                    System.out.println("\nFailures:");
+                    header = true;
+                }
+                System.out.println(r.file + " [" + r.scheduler + "]: " + r.error);
+            }
+        }
+    }
+
+    // One input file, loaded once and shared read-only by the runs on it
+    static class Workload {
+        ProcessTable table;
+        int contextSwitch;
+        int rrQuantum;
+        int agingInterval;
+
+        static Workload load(File file) throws IOException {
+            Workload w = new Workload();
+            if (file.getName().endsWith(".trace")) {
+                TraceFile trace = TraceFile.open(file);
+                w.table = trace.toTable();
+                w.contextSwitch = trace.contextSwitch;
+                w.rrQuantum = trace.rrQuantum;
+                w.agingInterval = trace.agingInterval;
+            } else {
+                WorkloadReader reader = new WorkloadReader();
+                w.table = new ProcessTable();
+                reader.read(file, w.table);
+                w.contextSwitch = reader.contextSwitch;
+                w.rrQuantum = reader.rrQuantum;
+                w.agingInterval = reader.agingInterval;
+                if (reader.ioDevices > 0) {
+                    w.table.ioDevices = reader.ioDevices;
+                }
+                if (reader.ioPolicy != null) {
+                    w.table.ioPolicy = IoDevices.policy(reader.ioPolicy);
+                }
+            }
+            return w;
+        }
+
+        // Name of a setting the scheduler cannot run without, or null
+        String missingSetting(String scheduler) {
+            switch (scheduler) {
+                case "RR":
+                    return rrQuantum > 0 ? null : "rrQuantum";
+                case "Priority":
+                    return agingInterval > 0 ? null : "agingInterval";
+                case "AG":
+                    for (int id = 0; id < table.size; id++) {
+                        if (table.quantum[id] <= 0) {
+                            return "quantum";
+                        }
+                    }
+                    return null;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    static class Run {
+        final String file;
+        final String scheduler;
+        int processes;
+        double averageWaiting;
+        double averageTurnaround;
+        int makespan;
+        long nanos;
+        boolean skipped;
+        String error;
+        SchedulerMetrics metrics; // only with -m
+
+        Run(String file, String scheduler) {
+            this.file = file;
+            this.scheduler = scheduler;
+        }
+
+        String status() {
+            return skipped ? "skipped" : error != null ? "failed" : "ok";
+        }
+    }
+}
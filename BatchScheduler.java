@@ -0,0 +1,58 @@
+// One engine run reused for a stream of independent workloads with the same settings, for
+// evaluating many small traces back to back. The caller refills table for each workload
+// (table.clear(), then add() or accept() per process) and calls run(); per-process results are
+// left in the table and the summary in the fields below.
+//
+// The ready queues, arrival order, timeline and AG quantum log all keep their buffers between
+// workloads (SchedulerRun.reset), so once they have grown to the largest workload seen a run
+// allocates nothing. The exception is Priority with an aging interval above 128, whose aging
+// classes are keyed by boxed residues. SchedulerBenchmark -m batch measures this mode.
+final class BatchScheduler {
+    final String scheduler;
+    final ProcessTable table;
+    private final Timeline timeline; // null unless segments are kept
+    private final SchedulerRun run;
+
+    // Summary of the last run()
+    double averageWaiting;
+    double averageTurnaround;
+    int makespan;
+    long runs;
+
+    // capacity is the expected largest workload; keepTimeline records the segments of each run
+    BatchScheduler(String scheduler, int contextSwitch, int rrQuantum, int agingInterval, int capacity, boolean keepTimeline) {
+        this.scheduler = scheduler;
+        this.table = new ProcessTable(capacity);
+        this.timeline = keepTimeline ? new Timeline(4 * capacity) : null;
+        this.run = SchedulerRun.create(scheduler, table, contextSwitch, rrQuantum, agingInterval, timeline);
+    }
+
+    BatchScheduler withMetrics(SchedulerMetrics metrics) {
+        run.withMetrics(metrics);
+        return this;
+    }
+
+    // Segments of the last run(), null unless kept
+    Timeline timeline() {
+        return timeline;
+    }
+
+    // Schedules whatever the table holds now, from the start
+    void run() {
+        table.reset();
+        if (timeline != null) {
+            timeline.clear();
+        }
+        run.reset();
+        run.submitAll().advance(Integer.MAX_VALUE);
+
+        int n = table.size;
+        averageWaiting = n == 0 ? 0 : (double) run.totalWaiting / n;
+        averageTurnaround = n == 0 ? 0 : (double) run.totalTurnaround / n;
+        makespan = 0;
+        for (int id = 0; id < n; id++) {
+            makespan = Math.max(makespan, table.completion[id]);
+        }
+        runs++;
+    }
+}
@@ -0,0 +1,388 @@
+import java.io.*;
+import java.util.*;
+
+// Completely-fair-scheduler style engine. Every runnable process accumulates virtual runtime
+// (vruntime) at a rate inversely proportional to its weight, and the one with the smallest
+// vruntime runs next:
+//   - Process.priority is read as a nice value (clamped to -20..19, lower gets more CPU) and
+//     mapped to the Linux weight table, nice 0 = 1024
+//   - a process runs for its share of the target latency, weight / total runnable weight, but
+//     at least the minimum granularity; with more runnable processes than targetLatency /
+//     minGranularity the period stretches to minGranularity per process
+//   - an arriving process starts at the queue's min_vruntime and preempts the running one when
+//     that is more than minGranularity (weighted) of virtual time behind it
+//
+// Runnable processes sit in a red-black tree ordered by (vruntime, id), the running one is
+// taken out, so every decision is O(log n). The engine is event driven: it only stops at
+// completions, slice ends and arrivals. A context switch is charged whenever the CPU goes to a
+// different process than the one that ran last.
+public class CFSScheduler implements Scheduler {
+
+    static final int NICE_0_WEIGHT = 1024;
+    static final int[] WEIGHTS = {
+            /* -20 */ 88761, 71755, 56483, 46273, 36291,
+            /* -15 */ 29154, 23254, 18705, 14949, 11916,
+            /* -10 */ 9548, 7620, 6100, 4904, 3906,
+            /*  -5 */ 3121, 2501, 1991, 1586, 1277,
+            /*   0 */ 1024, 820, 655, 526, 423,
+            /*   5 */ 335, 272, 215, 172, 137,
+            /*  10 */ 110, 87, 70, 56, 45,
+            /*  15 */ 36, 29, 23, 18, 15,
+    };
+    // vruntime is kept in 1/2^16 of a time unit at nice 0 and grows by INVERSE_WEIGHTS[nice] per
+    // time unit run (Linux's prio_to_wmult), so it does not depend on how a run is split up
+    static final int VRUNTIME_SHIFT = 16;
+    static final long[] INVERSE_WEIGHTS = new long[WEIGHTS.length];
+
+    static {
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            INVERSE_WEIGHTS[i] = ((long) NICE_0_WEIGHT << VRUNTIME_SHIFT) / WEIGHTS[i];
+        }
+    }
+
+    final int contextSwitch;
+    final int targetLatency;
+    final int minGranularity;
+    private final Timeline timeline = new Timeline();
+    private SchedulerMetrics metrics;
+
+    public CFSScheduler(int contextSwitch, int targetLatency, int minGranularity) {
+        if (minGranularity <= 0 || targetLatency < minGranularity) {
+            throw new IllegalArgumentException("Need 0 < minGranularity <= targetLatency, got "
+                    + minGranularity + " and " + targetLatency);
+        }
+        this.contextSwitch = contextSwitch;
+        this.targetLatency = targetLatency;
+        this.minGranularity = minGranularity;
+    }
+
+    // Settings used where only a workload's RR quantum is known (SchedulerRun.create): the
+    // quantum is the minimum granularity and the target latency is 8 of them (the Linux defaults
+    // have that ratio)
+    static int defaultGranularity(int rrQuantum) {
+        return rrQuantum > 0 ? rrQuantum : 1;
+    }
+
+    static int defaultLatency(int rrQuantum) {
+        return 8 * defaultGranularity(rrQuantum);
+    }
+
+    static int weight(int priority) {
+        return WEIGHTS[nice(priority) + 20];
+    }
+
+    static long inverseWeight(int priority) {
+        return INVERSE_WEIGHTS[nice(priority) + 20];
+    }
+
+    static int nice(int priority) {
+        return Math.max(-20, Math.min(19, priority));
+    }
+
+    @Override
+    public String name() {
+        return "CFS";
+    }
+
+    @Override
+    public ScheduleResult schedule(ProcessTable table) {
+        timeline.clear();
+        schedule(table, contextSwitch, targetLatency, minGranularity, timeline, metrics);
+        return ScheduleResult.of(name(), table, timeline);
+    }
+
+    @Override
+    public Scheduler withMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public static void schedule(List<Process> processes, int contextSwitch, int targetLatency, int minGranularity) {
+        ProcessTable table = ProcessTable.of(processes);
+        Timeline timeline = new Timeline();
+        schedule(table, contextSwitch, targetLatency, minGranularity, timeline, null);
+        table.copyResultsTo(processes);
+
+        List<String> executionOrder = new ArrayList<>();
+        for (int i = 0; i < timeline.size; i++) {
+            String name = table.name[timeline.process[i]];
+            if (!timeline.isContextSwitch(i) && (executionOrder.isEmpty() || !executionOrder.get(executionOrder.size() - 1).equals(name))) {
+                executionOrder.add(name);
+            }
+        }
+        System.out.println("Execution Order: " + String.join(" ", executionOrder));
+
+        double totalWT = 0, totalTAT = 0;
+        for (Process p : processes) {
+            totalWT += p.waitingTime;
+            totalTAT += p.turnaroundTime;
+            System.out.println(p.name + " | WaitingTime=" + p.waitingTime + " | TurnaroundTime=" + p.turnaroundTime);
+        }
+        System.out.println("\nAverage Waiting Time: " + (totalWT / processes.size()));
+        System.out.println("Average Turnaround Time: " + (totalTAT / processes.size()));
+    }
+
+    static void schedule(ProcessTable table, int contextSwitch, int targetLatency, int minGranularity,
+                         Timeline timeline, SchedulerMetrics metrics) {
+        table.reset();
+        new Run(table, contextSwitch, targetLatency, minGranularity, timeline).withMetrics(metrics)
+                .submitAll().advance(Integer.MAX_VALUE);
+    }
+
+    // Resumable CFS core, see SchedulerRun
+    static class Run extends SchedulerRun {
+        final int contextSwitch;
+        final int targetLatency;
+        final int minGranularity;
+        final IntRedBlackTree tree;
+
+        long[] vruntime;
+        long minVruntime = 0;
+        long totalWeight = 0; // runnable processes, including the running one
+
+        int current = -1;
+        int sliceEnd;
+        int last = -1; // process that ran last, for context switch accounting
+
+        Run(ProcessTable table, int contextSwitch, int targetLatency, int minGranularity, Timeline timeline) {
+            super(table, timeline);
+            this.contextSwitch = contextSwitch;
+            this.targetLatency = targetLatency;
+            this.minGranularity = minGranularity;
+            this.vruntime = new long[Math.max(1, table.size)];
+            this.tree = new IntRedBlackTree(table.size, (a, b) -> {
+                int c = Long.compare(vruntime[a], vruntime[b]);
+                return c != 0 ? c : Integer.compare(a, b);
+            });
+        }
+
+        @Override
+        void submitted(int id) {
+            if (id >= vruntime.length) {
+                vruntime = Arrays.copyOf(vruntime, Math.max(id + 1, vruntime.length * 2));
+            }
+        }
+
+        @Override
+        void advance(int limit) {
+            int[] remaining = table.remaining;
+
+            while (true) {
+                if (current == -1) {
+                    if (time >= limit) {
+                        return;
+                    }
+                    admit(time);
+                    if (tree.isEmpty()) {
+                        if (arrivals.peekTime() >= limit) {
+                            return;
+                        }
+                        if (metrics != null) {
+                            metrics.idle(time, arrivals.peekTime());
+                        }
+                        time = arrivals.peekTime();
+                        continue;
+                    }
+                    int id = tree.pollFirst();
+                    if (last != -1 && id != last) {
+                        if (timeline != null) {
+                            timeline.contextSwitch(id, time, time + contextSwitch);
+                        }
+                        if (metrics != null) {
+                            metrics.contextSwitch(contextSwitch);
+                        }
+                        time += contextSwitch;
+                    }
+                    if (metrics != null) {
+                        metrics.dispatch(table, id, time, tree.size());
+                    }
+                    current = id;
+                    last = id;
+                    sliceEnd = (int) Math.min(Integer.MAX_VALUE, (long) time + slice(id));
+                }
+                if (time >= limit) {
+                    return;
+                }
+
+                int until = Math.min(sliceEnd, limit);
+                if (remaining[current] < until - time) {
+                    until = time + remaining[current];
+                }
+                if (!arrivals.isEmpty()) {
+                    until = Math.min(until, Math.max(arrivals.peekTime(), time));
+                }
+                int step = until - time;
+                if (step > 0) {
+                    if (timeline != null) {
+                        timeline.run(current, time, until);
+                    }
+                    remaining[current] -= step;
+                    vruntime[current] += step * inverseWeight(table.priority[current]);
+                    time = until;
+                }
+                updateMinVruntime();
+
+                if (remaining[current] == 0) {
+                    boolean completed = burstDone(current, time);
+                    if (timeline != null) {
+                        timeline.end(completed ? Timeline.COMPLETION : Timeline.BLOCKED);
+                    }
+                    totalWeight -= weight(table.priority[current]);
+                    current = -1;
+                    continue;
+                }
+                // Everything else at limit depends on arrivals that may not be submitted yet
+                if (time >= limit) {
+                    return;
+                }
+
+                boolean woken = admit(time);
+                if (time >= sliceEnd) {
+                    preempt(Timeline.QUANTUM);
+                } else if (woken && wakeupPreempts(tree.first())) {
+                    preempt(Timeline.PRIORITY);
+                }
+            }
+        }
+
+        // Share of the scheduling period for id, which is about to run
+        private long slice(int id) {
+            long runnable = tree.size() + 1;
+            long period = runnable * minGranularity > targetLatency ? runnable * minGranularity : targetLatency;
+            return Math.max(minGranularity, period * weight(table.priority[id]) / totalWeight);
+        }
+
+        private boolean wakeupPreempts(int woken) {
+            return vruntime[current] - vruntime[woken] > minGranularity * inverseWeight(table.priority[woken]);
+        }
+
+        private void preempt(int reason) {
+            tree.add(current);
+            current = -1;
+            if (timeline != null) {
+                timeline.end(reason);
+            }
+            if (metrics != null) {
+                metrics.preempted(reason);
+            }
+        }
+
+        // min_vruntime only moves forward: the smaller of the running and the leftmost vruntime
+        private void updateMinVruntime() {
+            long candidate = Long.MAX_VALUE;
+            if (current != -1) {
+                candidate = vruntime[current];
+            }
+            if (!tree.isEmpty()) {
+                candidate = Math.min(candidate, vruntime[tree.first()]);
+            }
+            if (candidate != Long.MAX_VALUE && candidate > minVruntime) {
+                minVruntime = candidate;
+            }
+        }
+
+        // Arrivals start at min_vruntime, as do processes moved here from another core. A process
+        // back from I/O keeps its vruntime unless it has fallen more than half the target latency
+        // behind min_vruntime (Linux's sleeper credit), so sleeping earns a bounded head start.
+        private boolean admit(int upTo) {
+            boolean any = false;
+            while (arrivals.peekTime() <= upTo) {
+                int id = arrivals.poll();
+                if (!arrivals.returned()) {
+                    vruntime[id] = minVruntime;
+                } else {
+                    vruntime[id] = Math.max(vruntime[id], minVruntime - ((long) targetLatency << CFSScheduler.VRUNTIME_SHIFT) / 2);
+                }
+                totalWeight += weight(table.priority[id]);
+                tree.add(id);
+                any = true;
+            }
+            return any;
+        }
+
+        // The tree order only depends on the vruntimes, so its members are written as a plain list
+        @Override
+        void saveState(DataOutput out) throws IOException {
+            out.writeInt(current);
+            out.writeInt(sliceEnd);
+            out.writeInt(last);
+            out.writeLong(minVruntime);
+            out.writeLong(totalWeight);
+            for (int id = 0; id < table.size; id++) {
+                out.writeLong(vruntime[id]);
+            }
+            out.writeInt(tree.size());
+            for (int id = 0; id < table.size; id++) {
+                if (tree.contains(id)) {
+                    out.writeInt(id);
+                }
+            }
+        }
+
+        @Override
+        void restoreState(DataInput in) throws IOException {
+            current = in.readInt();
+            sliceEnd = in.readInt();
+            last = in.readInt();
+            minVruntime = in.readLong();
+            totalWeight = in.readLong();
+            for (int id = 0; id < table.size; id++) {
+                vruntime[id] = in.readLong();
+            }
+            for (int count = in.readInt(); count > 0; count--) {
+                tree.add(in.readInt());
+            }
+        }
+
+        @Override
+        void resetState() {
+            tree.clear();
+            minVruntime = 0;
+            totalWeight = 0;
+            current = -1;
+            sliceEnd = 0;
+            last = -1;
+        }
+
+        @Override
+        int readyCount() {
+            return tree.size();
+        }
+
+        @Override
+        int runningProcess() {
+            return current;
+        }
+
+        @Override
+        int nextEvent() {
+            if (current == -1) {
+                return tree.isEmpty() ? Integer.MAX_VALUE : time;
+            }
+            if (time >= sliceEnd) {
+                return time;
+            }
+            return (int) Math.min(sliceEnd, (long) time + table.remaining[current]);
+        }
+
+        @Override
+        int steal() {
+            if (tree.isEmpty()) {
+                return -1;
+            }
+            int id = tree.pollFirst();
+            totalWeight -= weight(table.priority[id]);
+            return id;
+        }
+
+        // vruntimes of different cores are not comparable, so it starts at this core's
+        // min_vruntime like an arrival
+        @Override
+        void adopt(int id) {
+            submitted(id);
+            vruntime[id] = minVruntime;
+            totalWeight += weight(table.priority[id]);
+            tree.add(id);
+        }
+    }
+}
@@ -0,0 +1,721 @@
+import java.io.*;
+import java.util.*;
+
+// Property-based differential test of the engines: random workloads and settings are run through
+// the fast engine and through its tick-by-tick counterpart in ReferenceSchedulers, and the two
+// must agree on every completion time, every timeline segment (process, start, end, reason),
+// the AG quantum histories and the metric counters. The fast side runs either in one advance()
+// or, as OnlineScheduler drives it, submitting processes just in time and advancing in steps.
+// SJF, RR, Priority and AG are first checked against the original programs themselves
+// (OriginalSchedulers): completion times, execution order and AG quantum histories. The original
+// RR cannot get past an idle CPU, so it only judges cases without one.
+//
+// The references have no I/O model, so a case whose processes do I/O bursts is checked against
+// invariants instead: the run advanced in steps matches the single advance(), MultiCoreScheduler
+// on one core matches a plain run, and every process's CPU, blocked and waiting time add up to its
+// turnaround, with each stay off the CPU at least as long as the I/O burst it was for.
+//
+// Every case, with or without I/O, is also run on 2 to 4 cores with stealing and with global
+// balancing, where the same accounting must hold with processes moving between cores, AG quantum
+// histories must have one entry per quantum that ended, and MLFQ levels must follow the
+// allotments used up until the first boost.
+//
+// A failing case is shrunk greedily (fewer processes, then smaller times, priorities, quanta and
+// settings, for as long as the mismatch persists) and printed as a workload file, with the
+// MLFQ / CFS / step / core settings in its name.
+//
+//   java DifferentialHarness [-s SJF,RR,Priority,AG,MLFQ,CFS] [-n cases] [-p maxProcesses]
+//                            [-seed 1] [-o dir]
+//
+// -o writes every shrunk case to dir/<scheduler>-<case>.json. After the first mismatch of a
+// scheduler the remaining cases skip it. Exits with status 1 if anything differed.
+public class DifferentialHarness {
+
+    public static void main(String[] args) throws IOException {
+        String[] schedulers = BatchRunner.SCHEDULERS;
+        int cases = 2000;
+        int maxProcesses = 8;
+        long seed = 1;
+        File out = null;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-s" -> schedulers = args[i + 1].split(",");
+                case "-n" -> cases = Integer.parseInt(args[i + 1]);
+                case "-p" -> maxProcesses = Integer.parseInt(args[i + 1]);
+                case "-seed" -> seed = Long.parseLong(args[i + 1]);
+                case "-o" -> out = new File(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (out != null) {
+            out.mkdirs();
+        }
+
+        Set<String> failed = new HashSet<>();
+        for (int n = 0; n < cases; n++) {
+            Case c = Case.random(new Random(seed * 1_000_003 + n), maxProcesses);
+            for (String scheduler : schedulers) {
+                if (failed.contains(scheduler)) {
+                    continue;
+                }
+                String difference = compare(scheduler, c);
+                if (difference == null) {
+                    continue;
+                }
+                failed.add(scheduler);
+                Case shrunk = shrink(scheduler, c);
+                System.out.printf("%s differs on case %d (seed %d): %s%n", scheduler, n, seed, difference);
+                System.out.printf("Shrunk to %d processes: %s%n", shrunk.size(), compare(scheduler, shrunk));
+                StringWriter json = new StringWriter();
+                shrunk.writeJson(json);
+                System.out.print(json);
+                if (out != null) {
+                    try (Writer writer = new FileWriter(new File(out, scheduler + "-" + n + ".json"))) {
+                        writer.write(json.toString());
+                    }
+                }
+            }
+        }
+
+        for (String scheduler : schedulers) {
+            System.out.printf("%-8s %s%n", scheduler, failed.contains(scheduler) ? "MISMATCH" : "ok, " + cases + " cases");
+        }
+        if (!failed.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    // First difference or broken invariant on c, or null if there is none
+    static String compare(String scheduler, Case c) {
+        String differs = c.hasIo() ? checkIo(scheduler, c) : againstReferences(scheduler, c);
+        return differs != null ? differs : checkMultiCore(scheduler, c);
+    }
+
+    // First difference between the fast engine and the original program or the reference on c
+    private static String againstReferences(String scheduler, Case c) {
+        ProcessTable expectedTable = c.table();
+        Timeline expected = new Timeline();
+        SchedulerMetrics expectedMetrics = new SchedulerMetrics();
+        ProcessTable actualTable = c.table();
+        Timeline actual = new Timeline();
+        SchedulerMetrics actualMetrics = new SchedulerMetrics();
+        try {
+            reference(scheduler, c, expectedTable, expected, expectedMetrics);
+        } catch (RuntimeException e) {
+            return "reference threw " + e;
+        }
+        try {
+            String unfinished = fast(scheduler, c, c.step, actualTable, actual, actualMetrics);
+            if (unfinished != null) {
+                return unfinished;
+            }
+        } catch (RuntimeException e) {
+            return "engine threw " + e;
+        }
+        String differs = againstOriginal(scheduler, c, actualTable, actual);
+        if (differs != null) {
+            return "original program: " + differs;
+        }
+        return difference(expectedTable, expected, expectedMetrics, actualTable, actual, actualMetrics);
+    }
+
+    // First difference between the engine's run and what the original program computes, or null.
+    // MLFQ and CFS have no original, and the original RR cannot run a workload with a gap.
+    private static String againstOriginal(String scheduler, Case c, ProcessTable table, Timeline timeline) {
+        ProcessTable input = c.table();
+        OriginalSchedulers.Outcome original;
+        try {
+            original = switch (scheduler) {
+                case "SJF" -> OriginalSchedulers.sjf(input, c.contextSwitch);
+                case "RR" -> OriginalSchedulers.rr(input, c.contextSwitch, c.rrQuantum);
+                case "Priority" -> OriginalSchedulers.priority(input, c.agingInterval, c.contextSwitch);
+                case "AG" -> OriginalSchedulers.ag(input, c.contextSwitch);
+                default -> null;
+            };
+        } catch (RuntimeException e) {
+            return "threw " + e;
+        }
+        if (original == null) {
+            return null;
+        }
+        for (int id = 0; id < c.size(); id++) {
+            if (table.completion[id] != original.completion[id]) {
+                return table.name[id] + " completes at " + table.completion[id] + ", expected " + original.completion[id];
+            }
+        }
+        List<String> order = ScheduleResult.of(scheduler, table, timeline).executionOrder();
+        if (!order.equals(original.executionOrder)) {
+            return "execution order " + order + ", expected " + original.executionOrder;
+        }
+        for (int id = 0; id < original.quantumHistory.size(); id++) {
+            String want = original.quantumHistory.get(id).toString();
+            String got = table.quantumHistory.get(id).toString();
+            if (!want.equals(got)) {
+                return table.name[id] + " quantum history " + got + ", expected " + want;
+            }
+        }
+        return null;
+    }
+
+    // First invariant c breaks with I/O bursts, or null
+    private static String checkIo(String scheduler, Case c) {
+        ProcessTable table = c.table();
+        Timeline timeline = new Timeline();
+        SchedulerMetrics metrics = new SchedulerMetrics();
+        try {
+            String unfinished = fast(scheduler, c, 0, table, timeline, metrics);
+            if (unfinished != null) {
+                return unfinished;
+            }
+        } catch (RuntimeException e) {
+            return "engine threw " + e;
+        }
+        String broken = checkAccounting(c, table, segments(c, timeline));
+        if (broken != null) {
+            return broken;
+        }
+
+        if (c.step != 0) {
+            ProcessTable steppedTable = c.table();
+            Timeline stepped = new Timeline();
+            SchedulerMetrics steppedMetrics = new SchedulerMetrics();
+            try {
+                String unfinished = fast(scheduler, c, c.step, steppedTable, stepped, steppedMetrics);
+                if (unfinished != null) {
+                    return "in steps: " + unfinished;
+                }
+            } catch (RuntimeException e) {
+                return "engine in steps threw " + e;
+            }
+            String differs = difference(table, timeline, metrics, steppedTable, stepped, steppedMetrics);
+            if (differs != null) {
+                return "in steps: " + differs;
+            }
+        }
+
+        // MultiCoreScheduler builds its runs with the default MLFQ / CFS settings
+        ProcessTable singleTable = c.table();
+        Timeline single = new Timeline();
+        SchedulerMetrics singleMetrics = new SchedulerMetrics();
+        ProcessTable multiTable = c.table();
+        MultiCoreScheduler multi = new MultiCoreScheduler(scheduler, 1, "global", 0, c.contextSwitch, c.rrQuantum,
+                c.agingInterval);
+        try {
+            SchedulerRun.schedule(scheduler, singleTable, c.contextSwitch, c.rrQuantum, c.agingInterval, single,
+                    singleMetrics);
+            multi.schedule(multiTable);
+        } catch (RuntimeException e) {
+            return "one core threw " + e;
+        }
+        String differs = difference(singleTable, single, singleMetrics, multiTable, multi.timelines[0], multi.metrics[0]);
+        return differs == null ? null : "on one core: " + differs;
+    }
+
+    // Invariants of MultiCoreScheduler on c.cores cores with processes migrating, under stealing and
+    // global balancing, balanced at every event or every c.step: the accounting adds up as on one
+    // core, AG's quantum history grows by one entry per quantum that ends, by what the rule for
+    // that end gives, and an MLFQ process only moves down the levels, one per allotment used up,
+    // until the first boost. MultiCoreScheduler runs MLFQ with the default levels.
+    private static String checkMultiCore(String scheduler, Case c) {
+        for (String balancing : new String[]{"stealing", "global"}) {
+            ProcessTable table = c.table();
+            MultiCoreScheduler multi = new MultiCoreScheduler(scheduler, c.cores, balancing, c.step, c.contextSwitch,
+                    c.rrQuantum, c.agingInterval);
+            try {
+                multi.schedule(table);
+            } catch (RuntimeException e) {
+                return "on " + c.cores + " cores, " + balancing + ": threw " + e;
+            }
+            List<List<int[]>> segments = segments(c, multi.timelines);
+            String broken = checkAccounting(c, table, segments);
+            for (int id = 0; id < c.size() && broken == null; id++) {
+                if (scheduler.equals("AG")) {
+                    broken = checkQuantumHistory(table, id, segments.get(id));
+                } else if (scheduler.equals("MLFQ")) {
+                    broken = checkLevels(table, id, segments.get(id), MLFQScheduler.defaultQuanta(c.rrQuantum));
+                }
+            }
+            if (broken != null) {
+                return "on " + c.cores + " cores, " + balancing + ": " + broken;
+            }
+        }
+        return null;
+    }
+
+    // Each process's CPU segments over all the timelines, as {start, end, reason}, in time order
+    private static List<List<int[]>> segments(Case c, Timeline... timelines) {
+        List<List<int[]>> segments = new ArrayList<>();
+        for (int id = 0; id < c.size(); id++) {
+            segments.add(new ArrayList<>());
+        }
+        for (Timeline timeline : timelines) {
+            for (int i = 0; i < timeline.size; i++) {
+                int id = timeline.process[i];
+                if (!timeline.isContextSwitch(i) && id >= 0) {
+                    segments.get(id).add(new int[]{timeline.start[i], timeline.end[i], timeline.reason[i]});
+                }
+            }
+        }
+        for (List<int[]> list : segments) {
+            list.sort(Comparator.comparingInt(s -> s[0]));
+        }
+        return segments;
+    }
+
+    // A process runs on one CPU at a time, its CPU, blocked and waiting time add up to the
+    // turnaround, and when it blocks it is back no earlier than its I/O burst allows
+    private static String checkAccounting(Case c, ProcessTable table, List<List<int[]>> segments) {
+        for (int id = 0; id < c.size(); id++) {
+            long cpu = 0;
+            int end = 0, blockedAt = -1, ioDone = 0;
+            for (int[] s : segments.get(id)) {
+                if (s[0] < end) {
+                    return table.name[id] + " runs at " + s[0] + ", before its run up to " + end + " is over";
+                }
+                if (blockedAt != -1 && s[0] < blockedAt + table.ioBurst(id, ioDone - 1)) {
+                    return table.name[id] + " runs at " + s[0] + ", blocked at " + blockedAt
+                            + " for " + table.ioBurst(id, ioDone - 1);
+                }
+                blockedAt = -1;
+                cpu += s[1] - s[0];
+                end = s[1];
+                if (s[2] == Timeline.BLOCKED) {
+                    blockedAt = s[1];
+                    ioDone++;
+                }
+            }
+            if (!table.finished(id)) {
+                return table.name[id] + " did not finish";
+            }
+            if (ioDone != table.ioCount[id]) {
+                return table.name[id] + " blocked " + ioDone + " times, expected " + table.ioCount[id];
+            }
+            int waiting = table.waiting(id);
+            if (waiting < 0 || cpu + table.blocked[id] + waiting != table.turnaround(id)) {
+                return table.name[id] + " ran " + cpu + ", blocked " + table.blocked[id] + " and waited " + waiting
+                        + " in a turnaround of " + table.turnaround(id);
+            }
+        }
+        return null;
+    }
+
+    // Every AG quantum is one segment, so the history must hold the initial quantum and then one
+    // value per segment that did not end in I/O
+    private static String checkQuantumHistory(ProcessTable table, int id, List<int[]> segments) {
+        IntList history = table.quantumHistory.get(id);
+        List<Integer> expected = new ArrayList<>();
+        int quantum = table.quantum[id];
+        expected.add(quantum);
+        for (int[] s : segments) {
+            int left = quantum - (s[1] - s[0]);
+            switch (s[2]) {
+                case Timeline.QUANTUM -> quantum += 2;
+                case Timeline.PRIORITY -> quantum += (left + 1) / 2;
+                case Timeline.SJF -> quantum += left;
+                case Timeline.COMPLETION -> quantum = 0;
+                default -> {
+                    continue;
+                }
+            }
+            expected.add(quantum);
+        }
+        if (!history.toString().equals(expected.toString())) {
+            return table.name[id] + " quantum history " + history + ", expected " + expected;
+        }
+        return null;
+    }
+
+    // Replays the process's allotments up to the first boost: each level's quantum is used up
+    // before it goes one down (at a quantum end or on the way to I/O), and never more than that
+    private static String checkLevels(ProcessTable table, int id, List<int[]> segments, int[] quanta) {
+        int boost = MLFQScheduler.defaultBoost(quanta);
+        int level = 0, allotment = quanta[0];
+        for (int[] s : segments) {
+            if (s[1] >= boost) {
+                return null;
+            }
+            allotment -= s[1] - s[0];
+            if (allotment < 0) {
+                return table.name[id] + " runs " + -allotment + " past its level " + level + " allotment at " + s[1];
+            }
+            if (s[2] == Timeline.QUANTUM && allotment > 0 || s[2] == Timeline.PRIORITY && allotment == 0) {
+                return table.name[id] + " leaves the CPU at " + s[1] + " with " + allotment + " of its level " + level
+                        + " allotment left, as " + Timeline.REASONS[s[2]];
+            }
+            if (allotment == 0 && (s[2] == Timeline.QUANTUM || s[2] == Timeline.BLOCKED)) {
+                level = Math.min(level + 1, quanta.length - 1);
+                allotment = quanta[level];
+            }
+        }
+        if (table.currentPriority[id] != level || table.currentQuantum[id] != allotment) {
+            return table.name[id] + " ends on level " + table.currentPriority[id] + " with " + table.currentQuantum[id]
+                    + " left, expected level " + level + " with " + allotment;
+        }
+        return null;
+    }
+
+    // First difference between two runs of the same case, or null
+    private static String difference(ProcessTable expectedTable, Timeline expected, SchedulerMetrics expectedMetrics,
+                                     ProcessTable actualTable, Timeline actual, SchedulerMetrics actualMetrics) {
+        for (int i = 0; i < Math.max(expected.size, actual.size); i++) {
+            String want = i < expected.size ? segment(expectedTable, expected, i) : "nothing";
+            String got = i < actual.size ? segment(actualTable, actual, i) : "nothing";
+            if (!want.equals(got)) {
+                return "segment " + i + " is " + got + ", expected " + want;
+            }
+        }
+        for (int id = 0; id < expectedTable.size; id++) {
+            if (actualTable.completion[id] != expectedTable.completion[id]) {
+                return expectedTable.name[id] + " completes at " + actualTable.completion[id]
+                        + ", expected " + expectedTable.completion[id];
+            }
+            if (actualTable.blocked[id] != expectedTable.blocked[id]) {
+                return expectedTable.name[id] + " blocked for " + actualTable.blocked[id]
+                        + ", expected " + expectedTable.blocked[id];
+            }
+            String want = expectedTable.quantumHistory.get(id).toString();
+            String got = actualTable.quantumHistory.get(id).toString();
+            if (!want.equals(got)) {
+                return expectedTable.name[id] + " quantum history " + got + ", expected " + want;
+            }
+        }
+        // dispatches, response times and queue depths are left out: the fast engines report a
+        // dispatch once per decision, which the references do not model
+        String[] names = {"completions", "context switches", "switch time", "busy time", "idle time"};
+        long[] want = {expectedMetrics.completions, expectedMetrics.contextSwitches, expectedMetrics.switchTime,
+                expectedMetrics.busyTime, expectedMetrics.idleTime};
+        long[] got = {actualMetrics.completions, actualMetrics.contextSwitches, actualMetrics.switchTime,
+                actualMetrics.busyTime, actualMetrics.idleTime};
+        for (int i = 0; i < names.length; i++) {
+            if (want[i] != got[i]) {
+                return names[i] + " " + got[i] + ", expected " + want[i];
+            }
+        }
+        for (int reason = 0; reason < expectedMetrics.preemptions.length; reason++) {
+            if (expectedMetrics.preemptions[reason] != actualMetrics.preemptions[reason]) {
+                return Timeline.REASONS[reason] + " preemptions " + actualMetrics.preemptions[reason]
+                        + ", expected " + expectedMetrics.preemptions[reason];
+            }
+        }
+        return null;
+    }
+
+    private static String segment(ProcessTable table, Timeline timeline, int i) {
+        String who = timeline.process[i] < 0 ? "idle" : table.name[timeline.process[i]];
+        return who + " [" + timeline.start[i] + ", " + timeline.end[i] + ") " + Timeline.REASONS[timeline.reason[i]];
+    }
+
+    private static void reference(String scheduler, Case c, ProcessTable table, Timeline timeline, SchedulerMetrics metrics) {
+        switch (scheduler) {
+            case "SJF" -> ReferenceSchedulers.sjf(table, c.contextSwitch, timeline, metrics);
+            case "RR" -> ReferenceSchedulers.roundRobin(table, c.contextSwitch, c.rrQuantum, timeline, metrics);
+            case "Priority" -> ReferenceSchedulers.priority(table, c.agingInterval, c.contextSwitch, timeline, metrics);
+            case "AG" -> ReferenceSchedulers.ag(table, c.contextSwitch, timeline, metrics);
+            case "MLFQ" -> ReferenceSchedulers.mlfq(table, c.contextSwitch, c.levels, c.boostInterval, timeline, metrics);
+            case "CFS" -> ReferenceSchedulers.cfs(table, c.contextSwitch, c.targetLatency, c.minGranularity, timeline, metrics);
+            default -> throw new IllegalArgumentException("Unknown scheduler " + scheduler);
+        }
+    }
+
+    // Runs the engine to completion, in steps of step unless it is 0; returns a message if it
+    // stops making progress
+    private static String fast(String scheduler, Case c, int step, ProcessTable table, Timeline timeline,
+                               SchedulerMetrics metrics) {
+        table.reset();
+        SchedulerRun run = SchedulerRun.create(scheduler, table, c.contextSwitch, c.rrQuantum, c.agingInterval, c.levels,
+                c.boostInterval, c.targetLatency, c.minGranularity, timeline).withMetrics(metrics);
+
+        if (step == 0) {
+            run.submitAll().advance(Integer.MAX_VALUE);
+        } else {
+            // Each process is submitted just before the first advance() that could admit it
+            int[] order = table.arrivalOrder();
+            int next = 0;
+            long horizon = c.horizon();
+            for (int limit = step; run.completed < table.size; limit += step) {
+                if (limit > horizon) {
+                    return "engine still has " + (table.size - run.completed) + " processes at time " + limit;
+                }
+                while (next < order.length && table.arrival[order[next]] < limit) {
+                    run.submit(order[next++]);
+                }
+                run.advance(limit);
+            }
+        }
+        if (run.completed < table.size) {
+            return "engine stopped with " + (table.size - run.completed) + " processes left";
+        }
+        return null;
+    }
+
+    static Case shrink(String scheduler, Case c) {
+        boolean smaller = true;
+        while (smaller) {
+            smaller = false;
+            for (Case candidate : c.candidates()) {
+                if (compare(scheduler, candidate) != null) {
+                    c = candidate;
+                    smaller = true;
+                    break;
+                }
+            }
+        }
+        return c;
+    }
+
+    // One generated workload with the settings of every scheduler
+    static final class Case {
+        int contextSwitch;
+        int rrQuantum;
+        int agingInterval;
+        int[] levels;        // MLFQ level quanta
+        int boostInterval;   // MLFQ, 0 = never
+        int targetLatency;   // CFS
+        int minGranularity;  // CFS
+        int step;            // advance() step of the fast engine, 0 = a single advance()
+        int cores = 2;       // for the multi-core checks, balanced every step (0 = at every event)
+        int ioDevices = 1;
+        int ioPolicy = IoDevices.FCFS;
+        int[] arrival;
+        int[][] bursts;      // CPU, I/O, CPU, ..., CPU
+        int[] priority;
+        int[] quantum;
+
+        static Case random(Random random, int maxProcesses) {
+            Case c = new Case();
+            int n = 1 + random.nextInt(maxProcesses);
+            c.contextSwitch = random.nextInt(4);
+            c.rrQuantum = 1 + random.nextInt(6);
+            c.agingInterval = 1 + random.nextInt(6);
+            c.levels = new int[1 + random.nextInt(4)];
+            for (int l = 0; l < c.levels.length; l++) {
+                c.levels[l] = 1 + random.nextInt(8);
+            }
+            c.boostInterval = random.nextBoolean() ? 0 : 5 + random.nextInt(40);
+            c.minGranularity = 1 + random.nextInt(4);
+            c.targetLatency = c.minGranularity * (1 + random.nextInt(6));
+            c.step = random.nextBoolean() ? 0 : 1 + random.nextInt(10);
+            c.cores = 2 + random.nextInt(3);
+            // one case in three does I/O, on a few devices
+            boolean io = random.nextInt(3) == 0;
+            c.ioDevices = 1 + random.nextInt(3);
+            c.ioPolicy = random.nextInt(IoDevices.POLICIES.length);
+
+            // arrivals spread over a random window, from all at once to mostly idle
+            int window = random.nextInt(1 + 8 * n);
+            c.arrival = new int[n];
+            c.bursts = new int[n][];
+            c.priority = new int[n];
+            c.quantum = new int[n];
+            for (int i = 0; i < n; i++) {
+                c.arrival[i] = random.nextInt(window + 1);
+                c.bursts[i] = new int[1 + 2 * (io && random.nextBoolean() ? 1 + random.nextInt(3) : 0)];
+                for (int b = 0; b < c.bursts[i].length; b++) {
+                    c.bursts[i][b] = 1 + random.nextInt(b % 2 == 0 ? 12 : 15);
+                }
+                c.priority[i] = random.nextInt(16) - 5; // CFS reads it as a nice value
+                c.quantum[i] = 1 + random.nextInt(8);
+            }
+            return c;
+        }
+
+        int size() {
+            return arrival.length;
+        }
+
+        boolean hasIo() {
+            for (int[] b : bursts) {
+                if (b.length > 1) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        ProcessTable table() {
+            ProcessTable table = new ProcessTable(size());
+            table.ioDevices = ioDevices;
+            table.ioPolicy = ioPolicy;
+            for (int i = 0; i < size(); i++) {
+                // distinct names: the priority engines break ties by name
+                table.add("P" + (i + 1), arrival[i], bursts[i], priority[i], quantum[i]);
+            }
+            return table;
+        }
+
+        // Generous bound on when every engine must have finished
+        long horizon() {
+            long cpu = 0, io = 0;
+            int last = 0;
+            for (int i = 0; i < size(); i++) {
+                for (int b = 0; b < bursts[i].length; b++) {
+                    if (b % 2 == 0) {
+                        cpu += bursts[i][b];
+                    } else {
+                        io += bursts[i][b];
+                    }
+                }
+                last = Math.max(last, arrival[i]);
+            }
+            return last + cpu * (contextSwitch + 1) * 4 + io + step + 100;
+        }
+
+        Case copy() {
+            Case c = new Case();
+            c.contextSwitch = contextSwitch;
+            c.rrQuantum = rrQuantum;
+            c.agingInterval = agingInterval;
+            c.levels = levels.clone();
+            c.boostInterval = boostInterval;
+            c.targetLatency = targetLatency;
+            c.minGranularity = minGranularity;
+            c.step = step;
+            c.cores = cores;
+            c.ioDevices = ioDevices;
+            c.ioPolicy = ioPolicy;
+            c.arrival = arrival.clone();
+            c.bursts = new int[size()][];
+            for (int i = 0; i < size(); i++) {
+                c.bursts[i] = bursts[i].clone();
+            }
+            c.priority = priority.clone();
+            c.quantum = quantum.clone();
+            return c;
+        }
+
+        // Every case one step smaller than this one, the biggest reductions first; each strictly
+        // decreases some field towards its minimum, so shrinking terminates
+        List<Case> candidates() {
+            List<Case> candidates = new ArrayList<>();
+            for (int i = 0; size() > 1 && i < size(); i++) {
+                candidates.add(without(i));
+            }
+            if (step != 0) {
+                candidates.add(with(c -> c.step = 0));
+            }
+            if (step > 1) {
+                candidates.add(with(c -> c.step--));
+            }
+            if (cores > 2) {
+                candidates.add(with(c -> c.cores--));
+            }
+            if (contextSwitch > 0) {
+                candidates.add(with(c -> c.contextSwitch = 0));
+                candidates.add(with(c -> c.contextSwitch--));
+            }
+            if (rrQuantum > 1) {
+                candidates.add(with(c -> c.rrQuantum = 1));
+                candidates.add(with(c -> c.rrQuantum--));
+            }
+            if (agingInterval > 1) {
+                candidates.add(with(c -> c.agingInterval = 1));
+                candidates.add(with(c -> c.agingInterval--));
+            }
+            if (levels.length > 1) {
+                candidates.add(with(c -> c.levels = Arrays.copyOf(levels, levels.length - 1)));
+            }
+            for (int l = 0; l < levels.length; l++) {
+                int level = l;
+                if (levels[l] > 1) {
+                    candidates.add(with(c -> c.levels[level]--));
+                }
+            }
+            if (boostInterval > 0) {
+                candidates.add(with(c -> c.boostInterval = 0));
+            }
+            if (boostInterval > 1) {
+                candidates.add(with(c -> c.boostInterval--));
+            }
+            if (targetLatency > minGranularity) {
+                candidates.add(with(c -> c.targetLatency = minGranularity));
+                candidates.add(with(c -> c.targetLatency--));
+            }
+            if (minGranularity > 1) {
+                candidates.add(with(c -> c.minGranularity--));
+            }
+            if (ioDevices > 1) {
+                candidates.add(with(c -> c.ioDevices--));
+            }
+            if (ioPolicy != IoDevices.FCFS) {
+                candidates.add(with(c -> c.ioPolicy = IoDevices.FCFS));
+            }
+            for (int i = 0; i < size(); i++) {
+                int p = i;
+                if (arrival[p] > 0) {
+                    candidates.add(with(c -> c.arrival[p] = 0));
+                    candidates.add(with(c -> c.arrival[p]--));
+                }
+                if (bursts[p].length > 1) {
+                    candidates.add(with(c -> c.bursts[p] = Arrays.copyOf(bursts[p], bursts[p].length - 2)));
+                }
+                for (int b = 0; b < bursts[p].length; b++) {
+                    int k = b;
+                    if (bursts[p][k] > 1) {
+                        candidates.add(with(c -> c.bursts[p][k] = 1));
+                        candidates.add(with(c -> c.bursts[p][k]--));
+                    }
+                }
+                if (priority[p] != 0) {
+                    candidates.add(with(c -> c.priority[p] = 0));
+                    candidates.add(with(c -> c.priority[p] -= Integer.signum(c.priority[p])));
+                }
+                if (quantum[p] > 1) {
+                    candidates.add(with(c -> c.quantum[p] = 1));
+                    candidates.add(with(c -> c.quantum[p]--));
+                }
+            }
+            return candidates;
+        }
+
+        private Case with(java.util.function.Consumer<Case> change) {
+            Case c = copy();
+            change.accept(c);
+            return c;
+        }
+
+        private Case without(int i) {
+            Case c = copy();
+            c.arrival = remove(arrival, i);
+            c.bursts = new int[size() - 1][];
+            for (int j = 0; j < c.bursts.length; j++) {
+                c.bursts[j] = bursts[j < i ? j : j + 1];
+            }
+            c.priority = remove(priority, i);
+            c.quantum = remove(quantum, i);
+            return c;
+        }
+
+        private static int[] remove(int[] values, int i) {
+            int[] result = new int[values.length - 1];
+            System.arraycopy(values, 0, result, 0, i);
+            System.arraycopy(values, i + 1, result, i, values.length - i - 1);
+            return result;
+        }
+
+        // Same schema as the files under OtherSchedulers/ and AG/
+        void writeJson(Writer out) throws IOException {
+            out.write("{\n  \"name\": \"MLFQ levels " + Arrays.toString(levels) + " boost " + boostInterval
+                    + ", CFS latency " + targetLatency + " granularity " + minGranularity + ", advance step " + step + ", "
+                    + cores + " cores\",\n");
+            out.write("  \"input\": {\n");
+            out.write("    \"contextSwitch\": " + contextSwitch + ",\n");
+            out.write("    \"rrQuantum\": " + rrQuantum + ",\n");
+            out.write("    \"agingInterval\": " + agingInterval + ",\n");
+            if (hasIo()) {
+                out.write("    \"ioDevices\": " + ioDevices + ",\n");
+                out.write("    \"ioPolicy\": \"" + IoDevices.POLICIES[ioPolicy] + "\",\n");
+            }
+            out.write("    \"processes\": [");
+            for (int i = 0; i < size(); i++) {
+                out.write(i == 0 ? "\n" : ",\n");
+                String burst = bursts[i].length == 1 ? "\"burst\": " + bursts[i][0]
+                        : "\"bursts\": " + Arrays.toString(bursts[i]);
+                out.write("      {\"name\": \"P" + (i + 1) + "\", \"arrival\": " + arrival[i] + ", " + burst
+                        + ", \"priority\": " + priority[i] + ", \"quantum\": " + quantum[i] + "}");
+            }
+            out.write("\n    ]\n  }\n}\n");
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+import java.io.*;
+import java.util.*;
+import com.google.gson.stream.JsonReader;
+
+// The expectedOutput block of a workload file for one scheduler, and a structured comparison
+// with what an engine produced. OtherSchedulers/ files hold one object per scheduler ("SJF",
+// "RR", "Priority"); AG/ files hold the AG results directly, without a scheduler key.
+final class ExpectedOutput {
+
+    static final class ProcessResult {
+        String name;
+        Integer waitingTime;
+        Integer turnaroundTime;
+        int[] quantumHistory; // AG only
+    }
+
+    final String scheduler;
+    List<String> executionOrder;
+    final List<ProcessResult> processResults = new ArrayList<>();
+    Double averageWaitingTime;
+    Double averageTurnaroundTime;
+
+    ExpectedOutput(String scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    // By scheduler name, in file order; empty when the file has no expectedOutput
+    static Map<String, ExpectedOutput> read(File file) throws IOException {
+        Map<String, ExpectedOutput> bySchedulers = new LinkedHashMap<>();
+        try (JsonReader json = new JsonReader(new BufferedReader(new FileReader(file)))) {
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextName().equals("expectedOutput")) {
+                    readBlock(json, bySchedulers);
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        }
+        return bySchedulers;
+    }
+
+    private static void readBlock(JsonReader json, Map<String, ExpectedOutput> bySchedulers) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (isField(name)) {
+                bySchedulers.computeIfAbsent("AG", ExpectedOutput::new).readField(name, json);
+                continue;
+            }
+            ExpectedOutput expected = new ExpectedOutput(name);
+            json.beginObject();
+            while (json.hasNext()) {
+                expected.readField(json.nextName(), json);
+            }
+            json.endObject();
+            bySchedulers.put(name, expected);
+        }
+        json.endObject();
+    }
+
+    private static boolean isField(String name) {
+        return switch (name) {
+            case "executionOrder", "processResults", "averageWaitingTime", "averageTurnaroundTime" -> true;
+            default -> false;
+        };
+    }
+
+    private void readField(String name, JsonReader json) throws IOException {
+        switch (name) {
+            case "executionOrder" -> {
+                executionOrder = new ArrayList<>();
+                json.beginArray();
+                while (json.hasNext()) {
+                    executionOrder.add(json.nextString());
+                }
+                json.endArray();
+            }
+            case "processResults" -> {
+                json.beginArray();
+                while (json.hasNext()) {
+                    processResults.add(readProcessResult(json));
+                }
+                json.endArray();
+            }
+            case "averageWaitingTime" -> averageWaitingTime = json.nextDouble();
+            case "averageTurnaroundTime" -> averageTurnaroundTime = json.nextDouble();
+            default -> json.skipValue();
+        }
+    }
+
+    private static ProcessResult readProcessResult(JsonReader json) throws IOException {
+        ProcessResult result = new ProcessResult();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "name" -> result.name = json.nextString();
+                case "waitingTime" -> result.waitingTime = json.nextInt();
+                case "turnaroundTime" -> result.turnaroundTime = json.nextInt();
+                case "quantumHistory" -> {
+                    IntList history = new IntList();
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        history.add(json.nextInt());
+                    }
+                    json.endArray();
+                    result.quantumHistory = history.toArray();
+                }
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        return result;
+    }
+
+    // One line per expected value the run does not reproduce, empty if it matches. table is the
+    // one result was scheduled on, for the AG quantum histories. Averages in the files are
+    // rounded to two decimals.
+    List<String> diff(ScheduleResult result, ProcessTable table) {
+        List<String> differences = new ArrayList<>();
+        if (executionOrder != null) {
+            List<String> actual = result.executionOrder();
+            int common = Math.min(executionOrder.size(), actual.size());
+            int i = 0;
+            while (i < common && executionOrder.get(i).equals(actual.get(i))) {
+                i++;
+            }
+            if (i < common) {
+                differences.add("executionOrder[" + i + "]: expected " + executionOrder.get(i) + ", got " + actual.get(i)
+                        + " (expected " + executionOrder + ", got " + actual + ")");
+            } else if (executionOrder.size() != actual.size()) {
+                differences.add("executionOrder: expected " + executionOrder.size() + " entries, got " + actual.size()
+                        + " (expected " + executionOrder + ", got " + actual + ")");
+            }
+        }
+
+        Map<String, Integer> ids = new HashMap<>();
+        for (int id = 0; id < result.processCount(); id++) {
+            ids.put(result.name(id), id);
+        }
+        for (ProcessResult expected : processResults) {
+            Integer id = ids.get(expected.name);
+            if (id == null) {
+                differences.add(expected.name + ": not in the workload");
+                continue;
+            }
+            if (expected.waitingTime != null && expected.waitingTime != result.waiting(id)) {
+                differences.add(expected.name + " waitingTime: expected " + expected.waitingTime + ", got " + result.waiting(id));
+            }
+            if (expected.turnaroundTime != null && expected.turnaroundTime != result.turnaround(id)) {
+                differences.add(expected.name + " turnaroundTime: expected " + expected.turnaroundTime + ", got " + result.turnaround(id));
+            }
+            if (expected.quantumHistory != null) {
+                int[] actual = table.quantumHistory.get(id).toArray();
+                if (!Arrays.equals(expected.quantumHistory, actual)) {
+                    differences.add(expected.name + " quantumHistory: expected " + Arrays.toString(expected.quantumHistory)
+                            + ", got " + Arrays.toString(actual));
+                }
+            }
+        }
+
+        if (averageWaitingTime != null && Math.abs(averageWaitingTime - result.averageWaiting()) > 0.005 + 1e-9) {
+            differences.add("averageWaitingTime: expected " + averageWaitingTime + ", got " + result.averageWaiting());
+        }
+        if (averageTurnaroundTime != null && Math.abs(averageTurnaroundTime - result.averageTurnaround()) > 0.005 + 1e-9) {
+            differences.add("averageTurnaroundTime: expected " + averageTurnaroundTime + ", got " + result.averageTurnaround());
+        }
+        return differences;
+    }
+}
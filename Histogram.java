@@ -0,0 +1,108 @@
+import java.util.*;
+
+// HDR-style histogram of non-negative longs: exact below 32, above that 16 linear buckets per
+// power of two, i.e. any value is reported within 1/16 (6.25%) of itself. Recording is a few
+// shifts and an array increment, the counts array is fixed (960 buckets) and nothing allocates.
+final class Histogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    static final int BUCKETS = (62 - (SUB_BUCKET_BITS - 1)) * HALF + SUB_BUCKETS; // highest bit of a long is 62
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    void add(Histogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    long count() {
+        return count;
+    }
+
+    long sum() {
+        return sum;
+    }
+
+    long min() {
+        return count == 0 ? 0 : min;
+    }
+
+    long max() {
+        return count == 0 ? 0 : max;
+    }
+
+    double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    // Smallest recorded value v (up to bucket resolution) such that at least p percent of the
+    // values are <= v
+    long percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, Math.max(min, highestIn(i)));
+            }
+        }
+        return max;
+    }
+
+    // For exporters: bucket i covers [lowestIn(i), highestIn(i)]
+    long countAt(int bucket) {
+        return counts[bucket];
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    static long lowestIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / HALF - 1;
+        return (long) (bucket - shift * HALF) << shift;
+    }
+
+    static long highestIn(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : lowestIn(bucket + 1) - 1;
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+
+// Binary min-heap of process ids that also tracks where each id sits,
+// so contains/remove of an arbitrary id cost O(1)/O(log n) instead of a scan.
+class IndexedMinHeap {
+    private final IntBinaryOperator comparator;
+    private int[] heap;
+    private int[] position; // heap slot of each id, -1 when absent
+    private int size;
+
+    IndexedMinHeap(int capacity, IntBinaryOperator comparator) {
+        this.comparator = comparator;
+        this.heap = new int[Math.max(1, capacity)];
+        this.position = new int[Math.max(1, capacity)];
+        Arrays.fill(position, -1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int id) {
+        return id < position.length && position[id] >= 0;
+    }
+
+    int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    void add(int id) {
+        if (id >= position.length) {
+            int old = position.length;
+            position = Arrays.copyOf(position, Math.max(id + 1, old * 2));
+            Arrays.fill(position, old, position.length, -1);
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = id;
+        position[id] = size;
+        siftUp(size++);
+    }
+
+    int poll() {
+        if (size == 0) {
+            return -1;
+        }
+        int top = heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        removeAt(position[id]);
+        return true;
+    }
+
+    // i-th slot of the heap array, in no particular order
+    int get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return heap[i];
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void removeAt(int slot) {
+        int removed = heap[slot];
+        position[removed] = -1;
+        size--;
+        if (slot == size) {
+            return;
+        }
+        heap[slot] = heap[size];
+        position[heap[slot]] = slot;
+        if (slot > 0 && comparator.applyAsInt(heap[slot], heap[(slot - 1) / 2]) < 0) {
+            siftUp(slot);
+        } else {
+            siftDown(slot);
+        }
+    }
+
+    private void siftUp(int slot) {
+        int id = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (comparator.applyAsInt(id, heap[parent]) >= 0) {
+                break;
+            }
+            heap[slot] = heap[parent];
+            position[heap[slot]] = slot;
+            slot = parent;
+        }
+        heap[slot] = id;
+        position[id] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int id = heap[slot];
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && comparator.applyAsInt(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (comparator.applyAsInt(heap[child], id) >= 0) {
+                break;
+            }
+            heap[slot] = heap[child];
+            position[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = id;
+        position[id] = slot;
+    }
+}
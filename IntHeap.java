@@ -0,0 +1,81 @@
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+
+// Plain binary min-heap of ints ordered by a comparator over ids.
+// Use IndexedMinHeap instead when arbitrary entries have to be removed.
+class IntHeap {
+    private final IntBinaryOperator comparator;
+    private int[] heap;
+    private int size;
+
+    IntHeap(int capacity, IntBinaryOperator comparator) {
+        this.comparator = comparator;
+        this.heap = new int[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0];
+    }
+
+    void add(int id) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int slot = size++;
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (comparator.applyAsInt(id, heap[parent]) >= 0) {
+                break;
+            }
+            heap[slot] = heap[parent];
+            slot = parent;
+        }
+        heap[slot] = id;
+    }
+
+    int poll() {
+        int top = peek();
+        int last = heap[--size];
+        int slot = 0;
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && comparator.applyAsInt(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (comparator.applyAsInt(heap[child], last) >= 0) {
+                break;
+            }
+            heap[slot] = heap[child];
+            slot = child;
+        }
+        heap[slot] = last;
+        return top;
+    }
+
+    // i-th slot of the heap array; adding get(0) .. get(size() - 1) in that order to an empty
+    // heap rebuilds the same array
+    int get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return heap[i];
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
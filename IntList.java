@@ -0,0 +1,58 @@
+import java.util.*;
+
+// Growable array of ints, an unboxed stand-in for List<Integer>. toString prints
+// like a List so results read the same as before.
+class IntList {
+    private int[] elements;
+    private int size = 0;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        elements = new int[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        elements[size++] = value;
+    }
+
+    int get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return elements[i];
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(elements[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
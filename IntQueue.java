@@ -0,0 +1,65 @@
+import java.util.*;
+
+// Growable ring buffer of ints, used as a FIFO queue of process ids (and as an
+// append-only id list via get) without boxing every element.
+class IntQueue {
+    private int[] elements;
+    private int head = 0;
+    private int size = 0;
+
+    IntQueue() {
+        this(16);
+    }
+
+    IntQueue(int capacity) {
+        elements = new int[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void add(int value) {
+        if (size == elements.length) {
+            int[] grown = new int[elements.length * 2];
+            for (int i = 0; i < size; i++) {
+                grown[i] = elements[(head + i) % elements.length];
+            }
+            elements = grown;
+            head = 0;
+        }
+        elements[(head + size) % elements.length] = value;
+        size++;
+    }
+
+    int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return elements[head];
+    }
+
+    int poll() {
+        int value = peek();
+        head = (head + 1) % elements.length;
+        size--;
+        return value;
+    }
+
+    // i-th element counted from the head
+    int get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return elements[(head + i) % elements.length];
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+}
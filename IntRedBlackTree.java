@@ -0,0 +1,288 @@
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+
+// Red-black tree of ints (process ids) ordered by a comparator, with the nodes kept in arrays
+// indexed by id, so nothing is allocated per insertion. The comparator must be a total order
+// and an id's key must not change while it is in the tree. add/remove are O(log n) and the
+// smallest element is cached, so first() is O(1).
+//
+// Node i + 1 belongs to id i; node 0 is the shared black leaf (NIL), as in CLRS.
+class IntRedBlackTree {
+    private static final int NIL = 0;
+
+    private final IntBinaryOperator comparator;
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private boolean[] red;
+    private boolean[] member;
+    private int root = NIL;
+    private int leftmost = NIL;
+    private int size;
+
+    IntRedBlackTree(int capacity, IntBinaryOperator comparator) {
+        this.comparator = comparator;
+        int nodes = Math.max(1, capacity) + 1;
+        left = new int[nodes];
+        right = new int[nodes];
+        parent = new int[nodes];
+        red = new boolean[nodes];
+        member = new boolean[nodes];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int id) {
+        return id + 1 < member.length && member[id + 1];
+    }
+
+    // Smallest id, -1 when empty
+    int first() {
+        return leftmost - 1;
+    }
+
+    int pollFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int id = first();
+        remove(id);
+        return id;
+    }
+
+    void add(int id) {
+        int z = id + 1;
+        if (z >= left.length) {
+            grow(Math.max(z + 1, left.length * 2));
+        }
+        if (member[z]) {
+            throw new IllegalStateException("Id " + id + " is already in the tree");
+        }
+        int y = NIL, x = root;
+        while (x != NIL) {
+            y = x;
+            x = less(z, x) ? left[x] : right[x];
+        }
+        parent[z] = y;
+        if (y == NIL) {
+            root = z;
+        } else if (less(z, y)) {
+            left[y] = z;
+        } else {
+            right[y] = z;
+        }
+        left[z] = NIL;
+        right[z] = NIL;
+        red[z] = true;
+        member[z] = true;
+        if (leftmost == NIL || less(z, leftmost)) {
+            leftmost = z;
+        }
+        size++;
+        insertFixup(z);
+    }
+
+    void remove(int id) {
+        int z = id + 1;
+        if (!contains(id)) {
+            throw new NoSuchElementException("Id " + id + " is not in the tree");
+        }
+        if (z == leftmost) {
+            // the leftmost node has no left child
+            leftmost = right[z] != NIL ? minimum(right[z]) : parent[z];
+        }
+        int y = z, x;
+        boolean yWasRed = red[y];
+        if (left[z] == NIL) {
+            x = right[z];
+            transplant(z, right[z]);
+        } else if (right[z] == NIL) {
+            x = left[z];
+            transplant(z, left[z]);
+        } else {
+            y = minimum(right[z]);
+            yWasRed = red[y];
+            x = right[y];
+            if (parent[y] == z) {
+                parent[x] = y;
+            } else {
+                transplant(y, right[y]);
+                right[y] = right[z];
+                parent[right[y]] = y;
+            }
+            transplant(z, y);
+            left[y] = left[z];
+            parent[left[y]] = y;
+            red[y] = red[z];
+        }
+        if (!yWasRed) {
+            deleteFixup(x);
+        }
+        member[z] = false;
+        size--;
+        red[NIL] = false;
+    }
+
+    void clear() {
+        Arrays.fill(member, false);
+        root = NIL;
+        leftmost = NIL;
+        size = 0;
+    }
+
+    private boolean less(int a, int b) {
+        return comparator.applyAsInt(a - 1, b - 1) < 0;
+    }
+
+    private int minimum(int x) {
+        while (left[x] != NIL) {
+            x = left[x];
+        }
+        return x;
+    }
+
+    private void transplant(int u, int v) {
+        if (parent[u] == NIL) {
+            root = v;
+        } else if (u == left[parent[u]]) {
+            left[parent[u]] = v;
+        } else {
+            right[parent[u]] = v;
+        }
+        parent[v] = parent[u];
+    }
+
+    private void rotateLeft(int x) {
+        int y = right[x];
+        right[x] = left[y];
+        if (left[y] != NIL) {
+            parent[left[y]] = x;
+        }
+        transplant(x, y);
+        left[y] = x;
+        parent[x] = y;
+    }
+
+    private void rotateRight(int x) {
+        int y = left[x];
+        left[x] = right[y];
+        if (right[y] != NIL) {
+            parent[right[y]] = x;
+        }
+        transplant(x, y);
+        right[y] = x;
+        parent[x] = y;
+    }
+
+    private void insertFixup(int z) {
+        while (red[parent[z]]) {
+            int p = parent[z], g = parent[p];
+            if (p == left[g]) {
+                int uncle = right[g];
+                if (red[uncle]) {
+                    red[p] = false;
+                    red[uncle] = false;
+                    red[g] = true;
+                    z = g;
+                } else {
+                    if (z == right[p]) {
+                        z = p;
+                        rotateLeft(z);
+                        p = parent[z];
+                    }
+                    red[p] = false;
+                    red[g] = true;
+                    rotateRight(g);
+                }
+            } else {
+                int uncle = left[g];
+                if (red[uncle]) {
+                    red[p] = false;
+                    red[uncle] = false;
+                    red[g] = true;
+                    z = g;
+                } else {
+                    if (z == left[p]) {
+                        z = p;
+                        rotateRight(z);
+                        p = parent[z];
+                    }
+                    red[p] = false;
+                    red[g] = true;
+                    rotateLeft(g);
+                }
+            }
+        }
+        red[root] = false;
+    }
+
+    private void deleteFixup(int x) {
+        while (x != root && !red[x]) {
+            int p = parent[x];
+            if (x == left[p]) {
+                int w = right[p];
+                if (red[w]) {
+                    red[w] = false;
+                    red[p] = true;
+                    rotateLeft(p);
+                    w = right[p];
+                }
+                if (!red[left[w]] && !red[right[w]]) {
+                    red[w] = true;
+                    x = p;
+                } else {
+                    if (!red[right[w]]) {
+                        red[left[w]] = false;
+                        red[w] = true;
+                        rotateRight(w);
+                        w = right[p];
+                    }
+                    red[w] = red[p];
+                    red[p] = false;
+                    red[right[w]] = false;
+                    rotateLeft(p);
+                    x = root;
+                }
+            } else {
+                int w = left[p];
+                if (red[w]) {
+                    red[w] = false;
+                    red[p] = true;
+                    rotateRight(p);
+                    w = left[p];
+                }
+                if (!red[left[w]] && !red[right[w]]) {
+                    red[w] = true;
+                    x = p;
+                } else {
+                    if (!red[left[w]]) {
+                        red[right[w]] = false;
+                        red[w] = true;
+                        rotateLeft(w);
+                        w = left[p];
+                    }
+                    red[w] = red[p];
+                    red[p] = false;
+                    red[left[w]] = false;
+                    rotateRight(p);
+                    x = root;
+                }
+            }
+        }
+        red[x] = false;
+    }
+
+    private void grow(int nodes) {
+        left = Arrays.copyOf(left, nodes);
+        right = Arrays.copyOf(right, nodes);
+        parent = Arrays.copyOf(parent, nodes);
+        red = Arrays.copyOf(red, nodes);
+        member = Arrays.copyOf(member, nodes);
+    }
+}
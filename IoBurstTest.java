@@ -0,0 +1,84 @@
+import java.util.*;
+import org.junit.*;
+
+// Engines on workloads with I/O bursts, on hand-made cases whose outcome hinges on the order of
+// events at one time. Run from the repository root:
+//
+//   java -cp .:lib/* org.junit.runner.JUnitCore IoBurstTest
+public class IoBurstTest {
+
+    // P2 completes at 4, the time P1 is back from I/O and P0 arrives; P0 has the lower id, so it
+    // is admitted first even when P2's completion falls on the limit of a step that P0 has not
+    // been submitted for yet
+    @Test
+    public void steppedRunMatchesSingleRun() {
+        for (String scheduler : BatchRunner.SCHEDULERS) {
+            String single = run(scheduler, 0);
+            for (int step = 1; step <= 6; step++) {
+                Assert.assertEquals(scheduler + " advanced in steps of " + step, single, run(scheduler, step));
+            }
+        }
+    }
+
+    @Test
+    public void agAdmitsEverythingDueBeforeTheNextQuantum() {
+        Assert.assertEquals("P1 [0, 2) blocked, P2 [2, 4) completion, P0 [4, 7) completion, P1 [7, 10) completion",
+                run("AG", 4));
+    }
+
+    // P0 and P1 run on cores 0 and 1 and both block at 2 on the one device the cores share: the
+    // second in line waits for the first instead of getting a device of its own
+    @Test
+    public void coresShareTheDevices() {
+        for (String policy : IoDevices.POLICIES) {
+            ProcessTable table = new ProcessTable();
+            table.ioPolicy = IoDevices.policy(policy);
+            table.add("P0", 0, new int[]{2, 5, 1}, 5, 4);
+            table.add("P1", 0, new int[]{2, 3, 1}, 5, 4);
+            new MultiCoreScheduler("SJF", 2, "affinity", 0, 0, 4, 5).schedule(table);
+            // FCFS takes requests made at the same time in core order, SSTF the shorter P1 first
+            boolean fcfs = policy.equals("FCFS");
+            Assert.assertArrayEquals(policy, fcfs ? new int[]{8, 11} : new int[]{11, 6},
+                    Arrays.copyOf(table.completion, 2));
+            Assert.assertArrayEquals(policy, fcfs ? new int[]{5, 8} : new int[]{8, 3},
+                    Arrays.copyOf(table.blocked, 2));
+        }
+    }
+
+    private static ProcessTable table() {
+        ProcessTable table = new ProcessTable();
+        table.add("P0", 4, 3, 5, 4);
+        table.add("P1", 0, new int[]{2, 2, 3}, 5, 4);
+        table.add("P2", 0, 2, 5, 4);
+        return table;
+    }
+
+    // Segments of one run, advanced in one go (step 0) or in steps with every process submitted
+    // just before the first advance() that could admit it
+    private static String run(String scheduler, int step) {
+        ProcessTable table = table();
+        Timeline timeline = new Timeline();
+        SchedulerRun run = SchedulerRun.create(scheduler, table, 0, 4, 5, timeline);
+        if (step == 0) {
+            run.submitAll().advance(Integer.MAX_VALUE);
+        } else {
+            int[] order = table.arrivalOrder();
+            int next = 0;
+            for (int limit = step; run.completed < table.size; limit += step) {
+                Assert.assertTrue(scheduler + " still running at " + limit, limit < 1000);
+                while (next < order.length && table.arrival[order[next]] < limit) {
+                    run.submit(order[next++]);
+                }
+                run.advance(limit);
+            }
+        }
+        List<String> segments = new ArrayList<>();
+        for (int i = 0; i < timeline.size; i++) {
+            if (!timeline.isContextSwitch(i)) {
+                segments.add(table.name[timeline.process[i]] + " [" + timeline.start[i] + ", " + timeline.end[i] + ") "
+                        + Timeline.REASONS[timeline.reason[i]]);
+            }
+        }
+        return String.join(", ", segments);
+    }
+}
@@ -0,0 +1,355 @@
+import java.io.*;
+import java.util.*;
+
+// I/O side of a run: processes blocked on an I/O burst queue for a pool of identical devices
+// and come back to the engine, through its ArrivalFeed, once one has served them. The number of
+// devices and the queue discipline are read from the table (ProcessTable.ioDevices, ioPolicy)
+// whenever the pool is empty:
+//   - FCFS: requests are served in the order they were made
+//   - SSTF: the shortest pending request first (shortest service time, there are no seek
+//     distances in this model), equal ones in request order
+//
+// Requests must come in time order, which the engines guarantee: a process blocks at the run's
+// current time and every event before it has already been released. Completions are worked out
+// lazily, the first time something asks past them, and released in (time, id) order.
+//
+// Several runs can share one pool (see share, MultiCoreScheduler): each run keeps its own
+// blocked count and served queue, the pool takes their requests in time order on flush() and
+// works out completions only up to the time it is flushed to.
+class IoDevices {
+    static final int FCFS = 0;
+    static final int SSTF = 1;
+    static final String[] POLICIES = {"FCFS", "SSTF"};
+
+    private final ProcessTable table;
+    private IoDevices pool = this; // holds the devices, this one unless shared
+    private int policy = FCFS;
+
+    // Per device: process being served (-1 when idle) and when it is done
+    private int[] serving = new int[0];
+    private int[] busyUntil = new int[0];
+
+    // Per process, for its pending request
+    private int[] requested = new int[0];
+    private long[] sequence = new long[0];
+    private int[] doneAt = new int[0];
+    private IoDevices[] owner = new IoDevices[0]; // whose served queue it goes to
+    private long requests = 0;
+
+    // Shared pool: requests made since the last flush()
+    private int[] bufferedId = new int[16];
+    private int[] bufferedAt = new int[16];
+    private IoDevices[] bufferedBy = new IoDevices[16];
+    private int buffered = 0;
+
+    private final IntHeap waiting;
+    private final IntQueue served = new IntQueue(); // done, not yet taken back by the engine
+    private int pending = 0;
+
+    IoDevices(ProcessTable table) {
+        this.table = table;
+        this.waiting = new IntHeap(16, (a, b) -> {
+            if (policy == SSTF) {
+                int c = Integer.compare(table.ioBurst(a, table.phase[a]), table.ioBurst(b, table.phase[b]));
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return Long.compare(sequence[a], sequence[b]);
+        });
+    }
+
+    static int policy(String name) {
+        for (int i = 0; i < POLICIES.length; i++) {
+            if (POLICIES[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown I/O policy " + name + ", expected FCFS or SSTF");
+    }
+
+    // Nothing blocked
+    boolean isIdle() {
+        return pending == 0;
+    }
+
+    // Processes blocked on I/O, served ones not yet taken back included
+    int size() {
+        return pending;
+    }
+
+    // From now on this run's processes are served by the devices of pool, along with those of
+    // every other run sharing it. Only while nothing is blocked.
+    void share(IoDevices pool) {
+        if (pending != 0) {
+            throw new IllegalStateException("Cannot share devices while " + pending + " processes are blocked");
+        }
+        this.pool = pool;
+    }
+
+    // id blocks at 'at' on its next I/O burst
+    void request(int id, int at) {
+        pending++;
+        if (pool == this) {
+            enqueue(id, at, this);
+            startWaiting(at);
+        } else {
+            pool.buffer(id, at, this);
+        }
+    }
+
+    // Shared pool: takes the requests made since the last call, which are all at t or earlier, in
+    // (time, run) order and completes everything done by t. Requests made at the same time on
+    // different cores compete for the free devices together. Until the next call no device may
+    // finish, so the runs are advanced no further than the time returned: when the next device
+    // is done, Integer.MAX_VALUE when none is busy.
+    int flush(int t) {
+        // insertion sort, stable: each run's own requests are already in time order
+        for (int i = 1; i < buffered; i++) {
+            int id = bufferedId[i], at = bufferedAt[i];
+            IoDevices by = bufferedBy[i];
+            int j = i;
+            for (; j > 0 && bufferedAt[j - 1] > at; j--) {
+                bufferedId[j] = bufferedId[j - 1];
+                bufferedAt[j] = bufferedAt[j - 1];
+                bufferedBy[j] = bufferedBy[j - 1];
+            }
+            bufferedId[j] = id;
+            bufferedAt[j] = at;
+            bufferedBy[j] = by;
+        }
+        for (int i = 0; i < buffered; i++) {
+            enqueue(bufferedId[i], bufferedAt[i], bufferedBy[i]);
+            if (i + 1 == buffered || bufferedAt[i + 1] != bufferedAt[i]) {
+                startWaiting(bufferedAt[i]);
+            }
+            bufferedBy[i] = null;
+        }
+        buffered = 0;
+        serveUpTo(t);
+        int d = nextDone();
+        return d == -1 ? Integer.MAX_VALUE : busyUntil[d];
+    }
+
+    // When id, which is blocked, went off to its current I/O burst
+    int requestedAt(int id) {
+        return pool.requested[id];
+    }
+
+    // Time the next blocked process is back, Integer.MAX_VALUE when there is none. On a shared
+    // pool a lower bound until it is served: the next time any device is done.
+    int peekTime() {
+        if (!served.isEmpty()) {
+            return pool.doneAt[served.peek()];
+        }
+        if (pending == 0) {
+            return Integer.MAX_VALUE;
+        }
+        int d = pool.nextDone();
+        return d == -1 ? Integer.MAX_VALUE : pool.busyUntil[d];
+    }
+
+    // Process peekTime() is about
+    int peek() {
+        if (!served.isEmpty()) {
+            return served.peek();
+        }
+        int d = pool.nextDone();
+        if (d == -1 || pool != this) {
+            throw new NoSuchElementException();
+        }
+        return serving[d];
+    }
+
+    // Hands the next process back: its blocked time is accounted for and its next CPU burst is
+    // up, waiting since it came back
+    int poll() {
+        if (served.isEmpty()) {
+            int d = nextDone();
+            if (d == -1 || pool != this) {
+                throw new NoSuchElementException();
+            }
+            finish(d);
+        }
+        int id = served.poll();
+        pending--;
+        table.blocked[id] += pool.doneAt[id] - pool.requested[id];
+        table.phase[id]++;
+        table.remaining[id] = table.cpuBurst(id, table.phase[id]);
+        table.agingAnchor[id] = pool.doneAt[id];
+        return id;
+    }
+
+    // A run sharing a pool only forgets its own processes, the pool is cleared by its owner
+    void clear() {
+        served.clear();
+        pending = 0;
+        if (pool == this) {
+            Arrays.fill(serving, -1);
+            waiting.clear();
+            requests = 0;
+            Arrays.fill(bufferedBy, 0, buffered, null);
+            buffered = 0;
+        }
+    }
+
+    // Devices and their requests, then the queue in heap order, then the served processes
+    void save(DataOutput out) throws IOException {
+        if (pool != this) {
+            throw new IllegalStateException("Cannot save a run whose I/O devices are shared");
+        }
+        out.writeInt(policy);
+        out.writeLong(requests);
+        out.writeInt(serving.length);
+        for (int d = 0; d < serving.length; d++) {
+            if (serving[d] == -1) {
+                out.writeInt(-1);
+            } else {
+                saveRequest(out, serving[d]);
+                out.writeInt(busyUntil[d]);
+            }
+        }
+        out.writeInt(waiting.size());
+        for (int i = 0; i < waiting.size(); i++) {
+            saveRequest(out, waiting.get(i));
+        }
+        out.writeInt(served.size());
+        for (int i = 0; i < served.size(); i++) {
+            saveRequest(out, served.get(i));
+            out.writeInt(doneAt[served.get(i)]);
+        }
+    }
+
+    void restore(DataInput in) throws IOException {
+        policy = in.readInt();
+        requests = in.readLong();
+        int devices = in.readInt();
+        serving = new int[devices];
+        busyUntil = new int[devices];
+        for (int d = 0; d < devices; d++) {
+            serving[d] = restoreRequest(in);
+            if (serving[d] != -1) {
+                busyUntil[d] = in.readInt();
+            }
+        }
+        for (int count = in.readInt(); count > 0; count--) {
+            waiting.add(restoreRequest(in));
+        }
+        for (int count = in.readInt(); count > 0; count--) {
+            int id = restoreRequest(in);
+            doneAt[id] = in.readInt();
+            served.add(id);
+        }
+    }
+
+    private void saveRequest(DataOutput out, int id) throws IOException {
+        out.writeInt(id);
+        out.writeInt(requested[id]);
+        out.writeLong(sequence[id]);
+    }
+
+    // Returns the id, or -1 for the marker of an idle device
+    private int restoreRequest(DataInput in) throws IOException {
+        int id = in.readInt();
+        if (id == -1) {
+            return -1;
+        }
+        ensureCapacity(id);
+        requested[id] = in.readInt();
+        sequence[id] = in.readLong();
+        owner[id] = this;
+        pending++;
+        return id;
+    }
+
+    private void buffer(int id, int at, IoDevices by) {
+        if (buffered == bufferedId.length) {
+            bufferedId = Arrays.copyOf(bufferedId, buffered * 2);
+            bufferedAt = Arrays.copyOf(bufferedAt, buffered * 2);
+            bufferedBy = Arrays.copyOf(bufferedBy, buffered * 2);
+        }
+        bufferedId[buffered] = id;
+        bufferedAt[buffered] = at;
+        bufferedBy[buffered++] = by;
+    }
+
+    // Queues the request of by's process id, see startWaiting
+    private void enqueue(int id, int at, IoDevices by) {
+        ensureCapacity(id);
+        serveUpTo(at);
+        if (waiting.isEmpty() && nextDone() == -1) {
+            configure();
+        }
+        owner[id] = by;
+        requested[id] = at;
+        sequence[id] = requests++;
+        waiting.add(id);
+    }
+
+    // Free devices take the queued requests, at 'at'
+    private void startWaiting(int at) {
+        for (int d = 0; d < serving.length && !waiting.isEmpty(); d++) {
+            if (serving[d] == -1) {
+                start(d, waiting.poll(), at);
+            }
+        }
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= requested.length) {
+            int capacity = Math.max(id + 1, Math.max(16, requested.length * 2));
+            requested = Arrays.copyOf(requested, capacity);
+            sequence = Arrays.copyOf(sequence, capacity);
+            doneAt = Arrays.copyOf(doneAt, capacity);
+            owner = Arrays.copyOf(owner, capacity);
+        }
+    }
+
+    private void configure() {
+        policy = table.ioPolicy;
+        if (serving.length != table.ioDevices) {
+            if (table.ioDevices < 1) {
+                throw new IllegalArgumentException("Need at least one I/O device, got " + table.ioDevices);
+            }
+            serving = new int[table.ioDevices];
+            busyUntil = new int[table.ioDevices];
+            Arrays.fill(serving, -1);
+        }
+    }
+
+    // Completes everything the devices finish by t. A device done at t picks its next request
+    // among the ones made before t, so it does not matter whether the engine takes the finished
+    // process back before or after a request made at t.
+    private void serveUpTo(int t) {
+        for (int d = nextDone(); d != -1 && busyUntil[d] <= t; d = nextDone()) {
+            finish(d);
+        }
+    }
+
+    // Device whose process is done first, ties by process id; -1 when all are idle
+    private int nextDone() {
+        int best = -1;
+        for (int d = 0; d < serving.length; d++) {
+            if (serving[d] != -1 && (best == -1 || busyUntil[d] < busyUntil[best]
+                    || busyUntil[d] == busyUntil[best] && serving[d] < serving[best])) {
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    private void finish(int d) {
+        int id = serving[d];
+        doneAt[id] = busyUntil[d];
+        owner[id].served.add(id);
+        serving[d] = -1;
+        if (!waiting.isEmpty()) {
+            start(d, waiting.poll(), doneAt[id]);
+        }
+    }
+
+    private void start(int d, int id, int at) {
+        serving[d] = id;
+        busyUntil[d] = at + table.ioBurst(id, table.phase[id]);
+    }
+}
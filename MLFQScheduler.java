@@ -0,0 +1,442 @@
+import java.io.*;
+import java.util.*;
+
+// Multi-level feedback queue:
+//   - a new process enters the top level (0)
+//   - the highest non-empty level runs first; within a level it is FIFO
+//   - a process that uses up its allotment at a level (quanta[level], however many times it
+//     gave up the CPU in between) moves one level down; on the bottom level it is round robin
+//   - a process preempted by an arrival on a higher level goes back to the front of its level
+//     and keeps what is left of its allotment
+//   - every boostInterval time units all processes move back to the top level with a fresh
+//     allotment (0 disables boosting)
+//
+// The level of a process is kept in table.currentPriority and what is left of its allotment in
+// table.currentQuantum. Each level is an intrusive singly linked deque over the ids and a bitmap
+// of non-empty levels picks the next one, so adding, picking and preempting are O(1) and a
+// boost splices whole levels, O(levels) however many processes are queued. A context switch is
+// charged whenever the CPU goes to a different process than the one that ran last.
+public class MLFQScheduler implements Scheduler {
+
+    static final int MAX_LEVELS = 64;
+
+    final int contextSwitch;
+    final int[] quanta;
+    final int boostInterval;
+    private final Timeline timeline = new Timeline();
+    private SchedulerMetrics metrics;
+
+    public MLFQScheduler(int contextSwitch, int[] quanta, int boostInterval) {
+        if (quanta.length == 0 || quanta.length > MAX_LEVELS) {
+            throw new IllegalArgumentException("MLFQ needs 1 to " + MAX_LEVELS + " levels, got " + quanta.length);
+        }
+        for (int q : quanta) {
+            if (q <= 0) {
+                throw new IllegalArgumentException("Level quanta must be positive: " + Arrays.toString(quanta));
+            }
+        }
+        if (boostInterval < 0) {
+            throw new IllegalArgumentException("Negative boost interval " + boostInterval);
+        }
+        this.contextSwitch = contextSwitch;
+        this.quanta = quanta.clone();
+        this.boostInterval = boostInterval;
+    }
+
+    // Settings used where only a workload's RR quantum is known (SchedulerRun.create and the
+    // tools built on it): three levels with quanta q, 2q, 4q and a boost every 16 * 4q
+    static int[] defaultQuanta(int rrQuantum) {
+        int q = rrQuantum > 0 ? rrQuantum : 2;
+        return new int[]{q, 2 * q, 4 * q};
+    }
+
+    static int defaultBoost(int[] quanta) {
+        return 16 * quanta[quanta.length - 1];
+    }
+
+    @Override
+    public String name() {
+        return "MLFQ";
+    }
+
+    @Override
+    public ScheduleResult schedule(ProcessTable table) {
+        timeline.clear();
+        schedule(table, contextSwitch, quanta, boostInterval, timeline, metrics);
+        return ScheduleResult.of(name(), table, timeline);
+    }
+
+    @Override
+    public Scheduler withMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public static void schedule(List<Process> processes, int contextSwitch, int[] quanta, int boostInterval) {
+        ProcessTable table = ProcessTable.of(processes);
+        Timeline timeline = new Timeline();
+        schedule(table, contextSwitch, quanta, boostInterval, timeline, null);
+        table.copyResultsTo(processes);
+
+        List<String> executionOrder = new ArrayList<>();
+        for (int i = 0; i < timeline.size; i++) {
+            String name = table.name[timeline.process[i]];
+            if (!timeline.isContextSwitch(i) && (executionOrder.isEmpty() || !executionOrder.get(executionOrder.size() - 1).equals(name))) {
+                executionOrder.add(name);
+            }
+        }
+        System.out.println("Execution Order: " + String.join(" ", executionOrder));
+
+        double totalWT = 0, totalTAT = 0;
+        for (Process p : processes) {
+            totalWT += p.waitingTime;
+            totalTAT += p.turnaroundTime;
+            System.out.println(p.name + " | WaitingTime=" + p.waitingTime + " | TurnaroundTime=" + p.turnaroundTime);
+        }
+        System.out.println("\nAverage Waiting Time: " + (totalWT / processes.size()));
+        System.out.println("Average Turnaround Time: " + (totalTAT / processes.size()));
+    }
+
+    static void schedule(ProcessTable table, int contextSwitch, int[] quanta, int boostInterval,
+                         Timeline timeline, SchedulerMetrics metrics) {
+        table.reset();
+        new Run(table, contextSwitch, quanta, boostInterval, timeline).withMetrics(metrics).submitAll().advance(Integer.MAX_VALUE);
+    }
+
+    // Resumable MLFQ core, see SchedulerRun. Runs up to the next point where something can
+    // change: completion, end of the allotment, the next boost and, below the top level, the
+    // next arrival.
+    static class Run extends SchedulerRun {
+        final int contextSwitch;
+        final int[] quanta;
+        final int boostInterval;
+        final int bottom;
+
+        // Level deques: head/tail per level, next per id (-1 terminated)
+        final int[] head;
+        final int[] tail;
+        int[] next;
+        long nonEmpty; // bit l set when level l has processes
+        int queued;
+
+        // A queued process whose boosts value is behind the run's was moved to the top level by
+        // a boost; its level and allotment are brought up to date when it is picked
+        int[] boostsSeen;
+        int boosts = 0;
+        int nextBoost;
+
+        int current = -1;
+        int last = -1; // process that ran last, for context switch accounting
+
+        Run(ProcessTable table, int contextSwitch, int[] quanta, int boostInterval, Timeline timeline) {
+            super(table, timeline);
+            this.contextSwitch = contextSwitch;
+            this.quanta = quanta;
+            this.boostInterval = boostInterval;
+            this.bottom = quanta.length - 1;
+            this.head = new int[quanta.length];
+            this.tail = new int[quanta.length];
+            Arrays.fill(head, -1);
+            Arrays.fill(tail, -1);
+            this.next = new int[Math.max(1, table.size)];
+            this.boostsSeen = new int[Math.max(1, table.size)];
+            this.nextBoost = boostInterval > 0 ? boostInterval : Integer.MAX_VALUE;
+        }
+
+        // A process that has not run yet starts on the top level
+        @Override
+        void submitted(int id) {
+            fit(id);
+            if (table.fresh(id)) {
+                table.currentPriority[id] = 0;
+                table.currentQuantum[id] = quanta[0];
+            }
+            boostsSeen[id] = boosts;
+        }
+
+        private void fit(int id) {
+            if (id >= next.length) {
+                next = Arrays.copyOf(next, Math.max(id + 1, next.length * 2));
+                boostsSeen = Arrays.copyOf(boostsSeen, next.length);
+            }
+        }
+
+        @Override
+        void advance(int limit) {
+            int[] remaining = table.remaining;
+            int[] level = table.currentPriority;
+            int[] allotment = table.currentQuantum;
+
+            while (true) {
+                if (current == -1) {
+                    if (time >= limit) {
+                        return;
+                    }
+                    admit(time);
+                    if (time >= nextBoost) {
+                        boost();
+                    }
+                    if (queued == 0) {
+                        if (arrivals.peekTime() >= limit) {
+                            return;
+                        }
+                        if (metrics != null) {
+                            metrics.idle(time, arrivals.peekTime());
+                        }
+                        time = arrivals.peekTime();
+                        continue;
+                    }
+                    int id = pollHighest();
+                    if (last != -1 && id != last) {
+                        if (timeline != null) {
+                            timeline.contextSwitch(id, time, time + contextSwitch);
+                        }
+                        if (metrics != null) {
+                            metrics.contextSwitch(contextSwitch);
+                        }
+                        time += contextSwitch;
+                    }
+                    if (metrics != null) {
+                        metrics.dispatch(table, id, time, queued);
+                    }
+                    current = id;
+                    last = id;
+                }
+                if (time >= limit) {
+                    return;
+                }
+
+                long until = Math.min((long) time + remaining[current], (long) time + allotment[current]);
+                until = Math.min(until, Math.max(nextBoost, time));
+                if (level[current] > 0 && !arrivals.isEmpty()) {
+                    until = Math.min(until, Math.max(arrivals.peekTime(), time));
+                }
+                until = Math.min(until, limit);
+                int step = (int) (until - time);
+                if (step > 0) {
+                    if (timeline != null) {
+                        timeline.run(current, time, time + step);
+                    }
+                    remaining[current] -= step;
+                    allotment[current] -= step;
+                    time += step;
+                }
+
+                if (remaining[current] == 0) {
+                    boolean completed = burstDone(current, time);
+                    if (!completed && allotment[current] == 0) {
+                        // the allotment ran out with the burst: demoted on the way to I/O
+                        level[current] = Math.min(level[current] + 1, bottom);
+                        allotment[current] = quanta[level[current]];
+                    }
+                    if (timeline != null) {
+                        timeline.end(completed ? Timeline.COMPLETION : Timeline.BLOCKED);
+                    }
+                    current = -1;
+                    continue;
+                }
+                // Everything else at limit depends on arrivals that may not be submitted yet
+                if (time >= limit) {
+                    return;
+                }
+
+                admit(time);
+                if (time >= nextBoost) {
+                    boost();
+                }
+                if (allotment[current] == 0) {
+                    int id = current;
+                    level[id] = Math.min(level[id] + 1, bottom);
+                    allotment[id] = quanta[level[id]];
+                    addLast(level[id], id);
+                    current = -1;
+                    if (timeline != null) {
+                        timeline.end(Timeline.QUANTUM);
+                    }
+                    if (metrics != null) {
+                        metrics.preempted(Timeline.QUANTUM);
+                    }
+                } else if (queued > 0 && Long.numberOfTrailingZeros(nonEmpty) < level[current]) {
+                    addFirst(level[current], current);
+                    current = -1;
+                    if (timeline != null) {
+                        timeline.end(Timeline.PRIORITY);
+                    }
+                    if (metrics != null) {
+                        metrics.preempted(Timeline.PRIORITY);
+                    }
+                }
+            }
+        }
+
+        // Arrivals join the top level in arrival order. A process back from I/O keeps its level and
+        // what is left of its allotment, so giving up the CPU early does not reset either; if a
+        // boost happened while it was away it comes back on the top level.
+        private void admit(int upTo) {
+            while (arrivals.peekTime() <= upTo) {
+                int id = arrivals.poll();
+                if (!arrivals.returned()) {
+                    addLast(0, id);
+                    continue;
+                }
+                if (boostsSeen[id] != boosts) {
+                    table.currentPriority[id] = 0;
+                    table.currentQuantum[id] = quanta[0];
+                    boostsSeen[id] = boosts;
+                }
+                addLast(table.currentPriority[id], id);
+            }
+        }
+
+        // Appends every lower level to the top one; the running process starts over there too
+        private void boost() {
+            for (int l = 1; l <= bottom; l++) {
+                if (head[l] == -1) {
+                    continue;
+                }
+                if (head[0] == -1) {
+                    head[0] = head[l];
+                } else {
+                    next[tail[0]] = head[l];
+                }
+                tail[0] = tail[l];
+                head[l] = -1;
+                tail[l] = -1;
+            }
+            nonEmpty = queued > 0 ? 1 : 0;
+            boosts++;
+            if (current != -1) {
+                table.currentPriority[current] = 0;
+                table.currentQuantum[current] = quanta[0];
+                boostsSeen[current] = boosts;
+            }
+            nextBoost = (int) Math.min(Integer.MAX_VALUE, ((long) time / boostInterval + 1) * boostInterval);
+        }
+
+        private void addLast(int l, int id) {
+            next[id] = -1;
+            if (tail[l] == -1) {
+                head[l] = id;
+            } else {
+                next[tail[l]] = id;
+            }
+            tail[l] = id;
+            nonEmpty |= 1L << l;
+            queued++;
+        }
+
+        private void addFirst(int l, int id) {
+            next[id] = head[l];
+            head[l] = id;
+            if (tail[l] == -1) {
+                tail[l] = id;
+            }
+            nonEmpty |= 1L << l;
+            queued++;
+        }
+
+        private int pollHighest() {
+            int l = Long.numberOfTrailingZeros(nonEmpty);
+            int id = head[l];
+            head[l] = next[id];
+            if (head[l] == -1) {
+                tail[l] = -1;
+                nonEmpty &= ~(1L << l);
+            }
+            queued--;
+            if (boostsSeen[id] != boosts) {
+                table.currentPriority[id] = 0;
+                table.currentQuantum[id] = quanta[0];
+                boostsSeen[id] = boosts;
+            }
+            return id;
+        }
+
+        @Override
+        void saveState(DataOutput out) throws IOException {
+            out.writeInt(current);
+            out.writeInt(last);
+            out.writeInt(boosts);
+            out.writeInt(nextBoost);
+            for (int id = 0; id < table.size; id++) {
+                out.writeInt(boostsSeen[id]);
+            }
+            for (int l = 0; l <= bottom; l++) {
+                int count = 0;
+                for (int id = head[l]; id != -1; id = next[id]) {
+                    count++;
+                }
+                out.writeInt(count);
+                for (int id = head[l]; id != -1; id = next[id]) {
+                    out.writeInt(id);
+                }
+            }
+        }
+
+        @Override
+        void restoreState(DataInput in) throws IOException {
+            current = in.readInt();
+            last = in.readInt();
+            boosts = in.readInt();
+            nextBoost = in.readInt();
+            for (int id = 0; id < table.size; id++) {
+                boostsSeen[id] = in.readInt();
+            }
+            for (int l = 0; l <= bottom; l++) {
+                for (int count = in.readInt(); count > 0; count--) {
+                    addLast(l, in.readInt());
+                }
+            }
+        }
+
+        @Override
+        void resetState() {
+            Arrays.fill(head, -1);
+            Arrays.fill(tail, -1);
+            nonEmpty = 0;
+            queued = 0;
+            boosts = 0;
+            nextBoost = boostInterval > 0 ? boostInterval : Integer.MAX_VALUE;
+            current = -1;
+            last = -1;
+        }
+
+        @Override
+        int readyCount() {
+            return queued;
+        }
+
+        @Override
+        int runningProcess() {
+            return current;
+        }
+
+        @Override
+        int nextEvent() {
+            if (current == -1) {
+                return queued == 0 ? Integer.MAX_VALUE : time;
+            }
+            int level = table.currentPriority[current];
+            if (time >= nextBoost || table.currentQuantum[current] == 0
+                    || queued > 0 && Long.numberOfTrailingZeros(nonEmpty) < level) {
+                return time;
+            }
+            long until = (long) time + Math.min(table.remaining[current], table.currentQuantum[current]);
+            return (int) Math.min(until, nextBoost);
+        }
+
+        @Override
+        int steal() {
+            return queued == 0 ? -1 : pollHighest();
+        }
+
+        // One that ran on another core keeps its level and what is left of its allotment; steal()
+        // has already applied the boosts of that core
+        @Override
+        void adopt(int id) {
+            fit(id);
+            boostsSeen[id] = boosts;
+            addLast(table.currentPriority[id], id);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+import java.io.*;
+import java.util.*;
+
+// Runs one of the scheduling algorithms on N cores. Every core is its own engine run (SchedulerRun)
+// with its own ready queue, timeline and metrics, all over the same ProcessTable, so the
+// per-process results end up in the table exactly as with one core. The I/O devices are one pool
+// shared by all cores; a process comes back from I/O to the core it blocked on.
+//
+// Load balancing:
+//   affinity  process id % cores, never migrated
+//   global    an arriving process goes to the core with the fewest unfinished processes, and
+//             idle cores pull ready processes from the busiest core, which approximates one
+//             queue shared by all cores
+//   stealing  placed like affinity, idle cores steal from the busiest core
+//
+// Cores are simulated in lockstep between balance points: every arrival time and, unless
+// balancing is affinity, every point where a core may end a burst, be preempted or run dry
+// (SchedulerRun.nextEvent), so a run costs O(events x cores) however long it is. An explicit
+// balanceInterval replaces those points with one balance every balanceInterval time units, and
+// a core that runs dry between two of them waits for the next one. Placement and stealing happen
+// at the balance points. A stolen process is the one the victim would have picked next; the thief
+// adopts it as it is (SchedulerRun.adopt), with its remaining time, priority, quantum and MLFQ
+// level (CFS starts it at the thief's min_vruntime), and charges an ordinary context switch to
+// run it. With I/O bursts every balancing also stops at the event points and whenever a device
+// is done, so the pool sees the requests of all cores in time order.
+//
+//   java MultiCoreScheduler <workload.json | workload.trace> [-s SJF,RR,Priority,AG,MLFQ,CFS] [-n 4]
+//                           [-b affinity,global,stealing] [-i interval] [-v]
+//
+// -v also prints one line per core (switches, busy, idle and switch time, utilization).
+class MultiCoreScheduler {
+    static final String[] BALANCING = {"affinity", "global", "stealing"};
+
+    final String scheduler;
+    final int cores;
+    final String balancing;
+    final int balanceInterval; // 0 = at every event
+    final int contextSwitch;
+    final int rrQuantum;
+    final int agingInterval;
+
+    // Filled by schedule(), one per core
+    Timeline[] timelines;
+    SchedulerMetrics[] metrics;
+    int migrations;
+    TimelineWriter writer; // if set, every core's segments are streamed here (lane = core)
+
+    MultiCoreScheduler(String scheduler, int cores, String balancing, int balanceInterval,
+                       int contextSwitch, int rrQuantum, int agingInterval) {
+        if (cores < 1) {
+            throw new IllegalArgumentException("Need at least one core, got " + cores);
+        }
+        if (!Arrays.asList(BALANCING).contains(balancing)) {
+            throw new IllegalArgumentException("Unknown balancing " + balancing);
+        }
+        if (balanceInterval < 0) {
+            throw new IllegalArgumentException("Balance interval cannot be negative, got " + balanceInterval);
+        }
+        this.scheduler = scheduler;
+        this.cores = cores;
+        this.balancing = balancing;
+        this.balanceInterval = balanceInterval;
+        this.contextSwitch = contextSwitch;
+        this.rrQuantum = rrQuantum;
+        this.agingInterval = agingInterval;
+    }
+
+    // Results are left in the table; the timelines only hold the segments of their own core (just
+    // the last one when streaming to writer)
+    ScheduleResult schedule(ProcessTable table) {
+        table.reset();
+        timelines = new Timeline[cores];
+        metrics = new SchedulerMetrics[cores];
+        migrations = 0;
+        SchedulerRun[] runs = new SchedulerRun[cores];
+        for (int c = 0; c < cores; c++) {
+            timelines[c] = new Timeline(writer == null ? 16 : 4096);
+            if (writer != null) {
+                timelines[c].streamTo(writer, c);
+            }
+            metrics[c] = new SchedulerMetrics();
+            runs[c] = SchedulerRun.create(scheduler, table, contextSwitch, rrQuantum, agingInterval, timelines[c])
+                    .withMetrics(metrics[c]);
+        }
+        boolean io = table.hasIo();
+        IoDevices devices = new IoDevices(table);
+        if (io) {
+            for (SchedulerRun run : runs) {
+                run.devices.share(devices);
+            }
+        }
+
+        int[] order = table.arrivalOrder();
+        int next = 0;
+        int t = order.length == 0 ? 0 : table.arrival[order[0]];
+        while (true) {
+            int ioDone = io ? devices.flush(t) : Integer.MAX_VALUE;
+            while (next < order.length && table.arrival[order[next]] <= t) {
+                int id = order[next++];
+                runs[place(runs, id)].submit(id);
+            }
+            if (!balancing.equals("affinity")) {
+                balance(table, runs, t);
+            }
+
+            int completed = 0;
+            boolean allIdle = true;
+            for (SchedulerRun run : runs) {
+                completed += run.completed;
+                allIdle &= run.idleAt(t);
+            }
+            if (completed == table.size) {
+                break;
+            }
+            int limit = Math.min(ioDone, next < order.length ? table.arrival[order[next]] : Integer.MAX_VALUE);
+            if (!balancing.equals("affinity") && !allIdle) {
+                limit = Math.min(limit, balanceInterval > 0 ? (int) Math.min(Integer.MAX_VALUE, (long) t + balanceInterval)
+                        : nextEvent(runs, t));
+            }
+            if (io && !allIdle) {
+                limit = Math.min(limit, nextEvent(runs, t));
+            }
+            for (SchedulerRun run : runs) {
+                run.advance(limit);
+            }
+            t = limit;
+        }
+        if (writer != null) {
+            for (Timeline timeline : timelines) {
+                timeline.flush();
+            }
+        }
+        return ScheduleResult.of(scheduler + " x" + cores, table, null);
+    }
+
+    // First point after t where some core may change what it offers to the others. A core still
+    // in a context switch past t counts from the end of it, one with processes to admit has to
+    // decide at t. Nothing comes before t + 1, so the scan stops there.
+    private static int nextEvent(SchedulerRun[] runs, int t) {
+        int event = Integer.MAX_VALUE;
+        for (int c = 0; c < runs.length && event > t + 1; c++) {
+            SchedulerRun run = runs[c];
+            if (run.time > t) {
+                event = Math.min(event, run.time);
+            } else if (run.arrivals.peekTime() <= t) {
+                event = t;
+            } else {
+                event = Math.min(event, run.nextEvent());
+            }
+        }
+        return Math.max(t + 1, event);
+    }
+
+    private int place(SchedulerRun[] runs, int id) {
+        if (!balancing.equals("global")) {
+            return id % cores;
+        }
+        int best = 0, bestLoad = Integer.MAX_VALUE;
+        for (int c = 0; c < cores; c++) {
+            int load = runs[c].load();
+            if (load < bestLoad) {
+                best = c;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    // Every idle core takes one ready process from the core with the most of them, as long as
+    // that core keeps something to run. Cores still in a context switch past t are left alone.
+    private void balance(ProcessTable table, SchedulerRun[] runs, int t) {
+        for (SchedulerRun thief : runs) {
+            if (!thief.idleAt(t)) {
+                continue;
+            }
+            SchedulerRun victim = null;
+            for (SchedulerRun run : runs) {
+                if (run.time <= t && run.load() >= 2 && run.readyCount() > 0
+                        && (victim == null || run.readyCount() > victim.readyCount())) {
+                    victim = run;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            int id = victim.steal();
+            SchedulerMetrics.migrated(table, id, victim.metrics, thief.metrics);
+            thief.idleUntil(t);
+            thief.adopt(id);
+            migrations++;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: java MultiCoreScheduler <workload.json | workload.trace> [-s SJF,RR,Priority,AG,MLFQ,CFS] [-n 4] "
+                    + "[-b affinity,global,stealing] [-i interval] [-v]");
+            return;
+        }
+        File file = new File(args[0]);
+        String[] schedulers = BatchRunner.SCHEDULERS;
+        int cores = 4;
+        String[] balancings = BALANCING;
+        int interval = 0;
+        boolean verbose = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "-s" -> schedulers = args[++i].split(",");
+                case "-n" -> cores = Integer.parseInt(args[++i]);
+                case "-b" -> balancings = args[++i].split(",");
+                case "-i" -> interval = Integer.parseInt(args[++i]);
+                case "-v" -> verbose = true;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        BatchRunner.Workload workload = BatchRunner.Workload.load(file);
+        System.out.printf("%s: %d processes on %d cores%n%n", file.getName(), workload.table.size, cores);
+        System.out.printf("%-9s %-9s %12s %14s %10s %10s %10s %12s%n",
+                "Scheduler", "Balancing", "avg Waiting", "avg Turnaround", "Makespan", "Switches", "Migrated", "Utilization");
+        for (String scheduler : schedulers) {
+            String missing = workload.missingSetting(scheduler);
+            if (missing != null) {
+                System.out.println("Skipping " + scheduler + ": no " + missing + " in " + file);
+                continue;
+            }
+            for (String balancing : balancings) {
+                MultiCoreScheduler multi = new MultiCoreScheduler(scheduler, cores, balancing, interval,
+                        workload.contextSwitch, workload.rrQuantum, workload.agingInterval);
+                ScheduleResult result = multi.schedule(workload.table.copy());
+                long switches = 0, busy = 0;
+                for (SchedulerMetrics m : multi.metrics) {
+                    switches += m.contextSwitches;
+                    busy += m.busyTime;
+                }
+                double utilization = result.makespan() == 0 ? 0 : (double) busy / ((long) result.makespan() * cores);
+                System.out.printf("%-9s %-9s %12.3f %14.3f %10d %10d %10d %11.1f%%%n", scheduler, balancing,
+                        result.averageWaiting(), result.averageTurnaround(), result.makespan(), switches, multi.migrations,
+                        utilization * 100);
+                if (verbose) {
+                    for (int c = 0; c < cores; c++) {
+                        SchedulerMetrics m = multi.metrics[c];
+                        System.out.printf("    core %-3d %8d processes %8d switches  busy %d  idle %d  switching %d  (%.1f%%)%n",
+                                c, m.completions, m.contextSwitches, m.busyTime, m.idleTime, m.switchTime, m.utilization() * 100);
+                    }
+                }
+            }
+        }
+    }
+}
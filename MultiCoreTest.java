@@ -0,0 +1,86 @@
+import java.util.*;
+import org.junit.*;
+
+// MultiCoreScheduler on hand-made cases where a process migrates. Run from the repository root:
+//
+//   java -cp .:lib/* org.junit.runner.JUnitCore MultiCoreTest
+public class MultiCoreTest {
+
+    static final String[] MIGRATING = {"stealing", "global"};
+
+    // P0 and P2 share core 0, P1 has core 1 to itself until it completes at 3 and takes P2, which
+    // has not run yet. Its history gets the one quantum it started with, not a second copy of it.
+    @Test
+    public void agMigrationKeepsTheQuantumHistory() {
+        for (String balancing : MIGRATING) {
+            ProcessTable table = table();
+            MultiCoreScheduler multi = new MultiCoreScheduler("AG", 2, balancing, 0, 0, 2, 5);
+            multi.schedule(table);
+            Assert.assertEquals(balancing, 1, multi.migrations);
+            Assert.assertEquals(balancing, "P0 [0, 4) quantum, P0 [4, 10) completion", segments(table, multi.timelines[0]));
+            Assert.assertEquals(balancing, "P1 [0, 3) completion, P2 [3, 7) quantum, P2 [7, 13) completion",
+                    segments(table, multi.timelines[1]));
+            Assert.assertEquals(balancing, "[4, 6, 0]", table.quantumHistory.get(0).toString());
+            Assert.assertEquals(balancing, "[4, 0]", table.quantumHistory.get(1).toString());
+            Assert.assertEquals(balancing, "[4, 6, 0]", table.quantumHistory.get(2).toString());
+        }
+    }
+
+    // Levels get quanta 2, 4 and 8. P0 has used up its top level allotment when core 1 takes it
+    // at 3, so it goes on with the 4 of level 1 there and ends on level 2.
+    @Test
+    public void mlfqMigrationKeepsTheLevel() {
+        for (String balancing : MIGRATING) {
+            ProcessTable table = table();
+            MultiCoreScheduler multi = new MultiCoreScheduler("MLFQ", 2, balancing, 0, 0, 2, 5);
+            multi.schedule(table);
+            Assert.assertEquals(balancing, 1, multi.migrations);
+            Assert.assertEquals(balancing, "P0 [0, 2) quantum, P2 [2, 4) quantum, P2 [4, 8) quantum, P2 [8, 12) completion",
+                    segments(table, multi.timelines[0]));
+            Assert.assertEquals(balancing, "P1 [0, 2) quantum, P1 [2, 3) completion, P0 [3, 7) quantum, P0 [7, 11) completion",
+                    segments(table, multi.timelines[1]));
+            Assert.assertArrayEquals(balancing, new int[]{2, 1, 2}, Arrays.copyOf(table.currentPriority, 3));
+        }
+    }
+
+    // The hand-off itself, on a run that is not idle: P1 has used 1 of its 4 and its top level
+    // allotment elsewhere, so it queues on level 1 behind the new P0 and P2, not among them
+    @Test
+    public void mlfqAdoptQueuesOnTheCurrentLevel() {
+        ProcessTable table = new ProcessTable();
+        table.add("P0", 0, 4, 3, 4);
+        table.add("P1", 0, 4, 3, 4);
+        table.add("P2", 0, 2, 3, 4);
+        table.reset();
+        Timeline timeline = new Timeline();
+        SchedulerRun run = SchedulerRun.create("MLFQ", table, 0, 2, 5, timeline);
+        run.submit(0);
+        run.submit(2);
+        table.remaining[1] = 3;
+        table.currentPriority[1] = 1;
+        table.currentQuantum[1] = 4;
+        run.adopt(1);
+        run.advance(Integer.MAX_VALUE);
+        Assert.assertEquals("P0 [0, 2) quantum, P2 [2, 4) completion, P1 [4, 7) completion, P0 [7, 9) completion",
+                segments(table, timeline));
+    }
+
+    private static ProcessTable table() {
+        ProcessTable table = new ProcessTable();
+        table.add("P0", 0, 10, 3, 4);
+        table.add("P1", 0, 3, 3, 4);
+        table.add("P2", 0, 10, 3, 4);
+        return table;
+    }
+
+    private static String segments(ProcessTable table, Timeline timeline) {
+        List<String> segments = new ArrayList<>();
+        for (int i = 0; i < timeline.size; i++) {
+            if (!timeline.isContextSwitch(i)) {
+                segments.add(table.name[timeline.process[i]] + " [" + timeline.start[i] + ", " + timeline.end[i] + ") "
+                        + Timeline.REASONS[timeline.reason[i]]);
+            }
+        }
+        return String.join(", ", segments);
+    }
+}
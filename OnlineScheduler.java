@@ -0,0 +1,166 @@
+import java.io.*;
+import java.util.*;
+
+// Drives one engine from a live feed instead of a complete workload:
+//
+//   OnlineScheduler online = new OnlineScheduler("RR", contextSwitch, quantum, agingInterval);
+//   int id = online.submit("P1", 0, 5, 2, 4);
+//   online.advanceTo(10);
+//   online.drainEvents(segments);
+//
+// Submissions may not arrive in the past (arrival >= now()), but need not be in arrival order.
+// advanceTo(t) simulates everything before t with what has been submitted, so the outcome is the
+// same as one batch run over all submitted processes no matter how time is split up. Each call
+// only does the work for the new interval; metrics are kept as running totals.
+//
+// save() captures the whole simulation (table, run state and the segments not drained yet) and
+// restore() continues from there exactly as the saved one would have; fork() does both in
+// memory for what-if branches. Metrics are not part of it, attach them again after a restore.
+class OnlineScheduler {
+    final String scheduler;
+    final int contextSwitch;
+    final int rrQuantum;
+    final int agingInterval;
+    final ProcessTable table;
+    private final Timeline timeline;
+    private final SchedulerRun run;
+    private int now = 0;
+
+    OnlineScheduler(String scheduler, int contextSwitch, int rrQuantum, int agingInterval) {
+        this(scheduler, contextSwitch, rrQuantum, agingInterval, new ProcessTable());
+    }
+
+    private OnlineScheduler(String scheduler, int contextSwitch, int rrQuantum, int agingInterval, ProcessTable table) {
+        this.scheduler = scheduler;
+        this.contextSwitch = contextSwitch;
+        this.rrQuantum = rrQuantum;
+        this.agingInterval = agingInterval;
+        this.table = table;
+        this.timeline = new Timeline();
+        this.run = SchedulerRun.create(scheduler, table, contextSwitch, rrQuantum, agingInterval, timeline);
+    }
+
+    // Returns the id of the new process
+    int submit(String name, int arrival, int burst, int priority, int quantum) {
+        if (arrival < now) {
+            throw new IllegalArgumentException(name + " arrives at " + arrival + ", before the current time " + now);
+        }
+        int id = table.add(name, arrival, burst, priority, quantum);
+        run.submit(id);
+        return id;
+    }
+
+    // bursts alternates CPU and I/O bursts (see ProcessTable); the devices are set up through
+    // table.ioDevices and table.ioPolicy before the first one blocks
+    int submit(String name, int arrival, int[] bursts, int priority, int quantum) {
+        if (arrival < now) {
+            throw new IllegalArgumentException(name + " arrives at " + arrival + ", before the current time " + now);
+        }
+        int id = table.add(name, arrival, bursts, priority, quantum);
+        run.submit(id);
+        return id;
+    }
+
+    int submit(Process p) {
+        return submit(p.name, p.arrivalTime, p.burstTime, p.priority, p instanceof AGProcess ag ? ag.quantum : 0);
+    }
+
+    // Counts everything from here on into metrics
+    OnlineScheduler withMetrics(SchedulerMetrics metrics) {
+        run.withMetrics(metrics);
+        return this;
+    }
+
+    void advanceTo(int time) {
+        if (time < now) {
+            throw new IllegalArgumentException("Cannot go back from " + now + " to " + time);
+        }
+        run.advance(time);
+        now = time;
+    }
+
+    // Runs until every submitted process has completed
+    void finish() {
+        run.advance(Integer.MAX_VALUE);
+        now = Math.max(now, run.time);
+    }
+
+    // Appends the segments closed since the last call to out and returns how many there were
+    int drainEvents(Timeline out) {
+        return timeline.drainTo(out);
+    }
+
+    int now() {
+        return now;
+    }
+
+    int submitted() {
+        return table.size;
+    }
+
+    int completed() {
+        return run.completed;
+    }
+
+    boolean finished(int id) {
+        return table.finished(id);
+    }
+
+    // Final waiting time once id has completed; before that the waiting time accumulated up to
+    // now(), which the final value can only exceed. Time on I/O does not count, so a process
+    // that is blocked right now is charged nothing for its current I/O burst.
+    int projectedWaiting(int id) {
+        if (table.finished(id)) {
+            return table.waiting(id);
+        }
+        int elapsed = now - table.arrival[id] - table.executed(id) - table.blocked[id];
+        if (table.isBlocked(id)) {
+            elapsed -= now - run.devices.requestedAt(id);
+        }
+        return Math.max(0, elapsed);
+    }
+
+    void save(DataOutput out) throws IOException {
+        out.writeUTF(scheduler);
+        out.writeInt(contextSwitch);
+        out.writeInt(rrQuantum);
+        out.writeInt(agingInterval);
+        out.writeInt(now);
+        table.save(out);
+        timeline.save(out);
+        run.save(out);
+    }
+
+    static OnlineScheduler restore(DataInput in) throws IOException {
+        String scheduler = in.readUTF();
+        int contextSwitch = in.readInt();
+        int rrQuantum = in.readInt();
+        int agingInterval = in.readInt();
+        int now = in.readInt();
+        OnlineScheduler online = new OnlineScheduler(scheduler, contextSwitch, rrQuantum, agingInterval, ProcessTable.restore(in));
+        online.now = now;
+        online.timeline.restore(in);
+        online.run.restore(in);
+        return online;
+    }
+
+    // Independent copy of the simulation at its current point
+    OnlineScheduler fork() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            save(new DataOutputStream(bytes));
+            return restore(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Over the completed processes
+    double averageWaiting() {
+        return run.completed == 0 ? 0 : (double) run.totalWaiting / run.completed;
+    }
+
+    double averageTurnaround() {
+        return run.completed == 0 ? 0 : (double) run.totalTurnaround / run.completed;
+    }
+}
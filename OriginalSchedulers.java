@@ -0,0 +1,417 @@
+import java.util.*;
+
+// The original SJFScheduler, RR, preemptivePriorityScheduling and AGScheduler programs, from
+// before the engines replaced them, kept as the oracle DifferentialHarness checks the fast
+// engines against. Their loops are unchanged; the printing is gone, each one reads the input
+// columns of a table and returns what the program computed, and AGProcess's bookkeeping is in
+// Job, as it was in the original AGProcess.
+//
+// The original RR stops as soon as its queue runs empty, so it never gets past an idle CPU: for a
+// workload with a gap (or nothing arriving at 0) rr() returns null. Never use these for real runs.
+final class OriginalSchedulers {
+
+    private OriginalSchedulers() {
+    }
+
+    // Completion time by process id, the execution order as the program printed it (consecutive
+    // repeats collapsed) and, for AG, the quantum history by process id
+    static final class Outcome {
+        final int[] completion;
+        final List<String> executionOrder = new ArrayList<>();
+        final List<List<Integer>> quantumHistory = new ArrayList<>();
+
+        Outcome(List<? extends Process> processes, List<String> order) {
+            completion = new int[processes.size()];
+            for (Process p : processes) {
+                completion[p.id] = p.completionTime;
+            }
+            for (String name : order) {
+                if (executionOrder.isEmpty() || !executionOrder.get(executionOrder.size() - 1).equals(name)) {
+                    executionOrder.add(name);
+                }
+            }
+        }
+    }
+
+    static Outcome sjf(ProcessTable table, int contextSwitch) {
+        List<Process> processes = processes(table);
+
+        int n = processes.size();
+        int completed = 0;
+        int time = 0;
+
+        List<String> executionOrder = new ArrayList<>();
+        Process running = null;
+
+        while (completed < n) {
+            // 1. Build ready queue
+            List<Process> ready = new ArrayList<>();
+            for (Process p : processes) {
+                if (p.arrivalTime <= time && p.remainingTime > 0) {
+                    ready.add(p);
+                }
+            }
+            // 2. CPU idle
+            if (ready.isEmpty()) {
+                time++;
+                continue;
+            }
+            // 3. Pick shortest remaining time
+            ready.sort(Comparator.comparingInt((Process p) -> p.remainingTime).thenComparingInt(p -> p.arrivalTime));
+            Process next = ready.get(0);
+
+            // 4. Context switch → ONLY advance time
+            if (running != next && !executionOrder.isEmpty()) {
+                time += contextSwitch;
+            }
+            // 5. Record execution order
+            if (running != next) {
+                executionOrder.add(next.name);
+            }
+            running = next;
+
+            // 6. Execute for 1 time unit
+            running.remainingTime--;
+            time++;
+
+            // 7. Completion
+            if (running.remainingTime == 0) {
+                running.completionTime = time;
+                completed++;
+                running = null;
+            }
+        }
+        return new Outcome(processes, executionOrder);
+    }
+
+    static Outcome rr(ProcessTable table, int contextSwitch, int timeQuantum) {
+        List<Process> processes = processes(table);
+        List<Process> executionOrder = new ArrayList<>();
+
+        Queue<Process> queue = new LinkedList<>();
+        int currentTime = 0;
+        processes.sort(Comparator.comparingInt(p -> p.arrivalTime));
+
+        int i = 0;
+        while (i < processes.size() && processes.get(i).arrivalTime <= currentTime) {
+            queue.add(processes.get(i));
+            i++;
+        }
+
+        while (!queue.isEmpty()) {
+            Process current = queue.poll();
+            executionOrder.add(current);
+
+            int execTime = Math.min(timeQuantum, current.remainingTime);
+
+            for (int t = 0; t < execTime; t++) {
+                currentTime++;
+                while (i < processes.size() && processes.get(i).arrivalTime <= currentTime) {
+                    queue.add(processes.get(i));
+                    i++;
+                }
+            }
+
+            current.remainingTime -= execTime;
+
+            if (current.remainingTime > 0) {
+                currentTime += contextSwitch;
+                queue.add(current);
+            } else {
+                current.completionTime = currentTime;
+            }
+        }
+
+        for (Process p : processes) {
+            if (p.remainingTime > 0) {
+                return null;
+            }
+        }
+        return new Outcome(processes, names(executionOrder));
+    }
+
+    static Outcome priority(ProcessTable table, int agingInterval, int contextSwitch) {
+        List<Process> processes = processes(table);
+        List<Process> executionOrder = new ArrayList<>();
+
+        PriorityQueue<Process> queue = new PriorityQueue<>(
+                (p1, p2) -> {
+                    if (p1.priority != p2.priority)
+                        return Integer.compare(p1.priority, p2.priority);
+                    else if (p1.arrivalTime != p2.arrivalTime)
+                        return Integer.compare(p1.arrivalTime, p2.arrivalTime);
+                    return p1.name.compareTo(p2.name);
+                }
+        );
+
+        processes.sort(Comparator.comparingInt(p -> p.arrivalTime));
+
+        int currentTime = processes.getFirst().arrivalTime;
+        int i = 0;
+        while (i < processes.size() && processes.get(i).arrivalTime == currentTime) {
+            queue.add(processes.get(i));
+            i++;
+        }
+
+        String lastProcess = "";
+        List<Process> arrivedProcesses = new ArrayList<>();
+        String curName = "";
+
+        while (!queue.isEmpty() || i < processes.size()) {
+            Process current = null;
+            curName = "Null";
+            if (!queue.isEmpty())
+            {
+                current = queue.poll();
+                executionOrder.add(current);
+                curName = current.name;
+            }
+            if (current != null && lastProcess.isEmpty())
+                lastProcess = current.name;
+            else if (!lastProcess.equals(curName) && !lastProcess.equals("Null")) {
+                lastProcess = curName;
+                if (!curName.equals("Null")) {
+                    queue.add(current);
+                }
+
+                for (int j = 0; j < contextSwitch; j++) {
+                    currentTime++;
+                    arrivedProcesses = new ArrayList<>(queue);
+                    queue.clear();
+                    for (Process p : arrivedProcesses) {
+                        if ((currentTime - p.tempArrivalTime) % agingInterval == 0) {
+                            p.priority = Math.max(1, p.priority - 1);
+                        }
+                        queue.add(p);
+                    }
+
+                    while (i < processes.size() && processes.get(i).arrivalTime == currentTime) {
+                        queue.add(processes.get(i));
+                        i++;
+                    }
+                }
+
+                continue;
+            }
+            currentTime++;
+            if (current != null)
+                current.remainingTime--;
+
+            arrivedProcesses = new ArrayList<>(queue);
+            queue.clear();
+            for (Process p : arrivedProcesses) {
+                if ((currentTime - p.tempArrivalTime) % agingInterval == 0) {
+                    p.priority = Math.max(1, p.priority - 1);
+                }
+                queue.add(p);
+            }
+
+            while (i < processes.size() && processes.get(i).arrivalTime == currentTime) {
+                queue.add(processes.get(i));
+                i++;
+            }
+
+            if (current == null)
+                continue;
+            if (current.remainingTime > 0) {
+                current.tempArrivalTime = currentTime;
+                queue.add(current);
+            } else {
+                current.completionTime = currentTime;
+            }
+        }
+        return new Outcome(processes, names(executionOrder));
+    }
+
+    static Outcome ag(ProcessTable table, int contextSwitch) {
+        List<Job> processes = new ArrayList<>();
+        for (int id = 0; id < table.size; id++) {
+            Job job = new Job(table.name[id], table.arrival[id], table.burst[id], table.priority[id], table.quantum[id]);
+            job.id = id;
+            processes.add(job);
+        }
+
+        int time = 0;
+        int completed = 0;
+        List<String> executionOrder = new ArrayList<>();
+        Queue<Job> readyQueue = new LinkedList<>();
+
+        processes.sort(Comparator.comparingInt(p -> p.arrivalTime));
+
+        while (completed < processes.size()) {
+
+            for (Job p : processes) {
+                if (p.arrivalTime <= time && p.remainingTime > 0 && !readyQueue.contains(p)) {
+                    readyQueue.add(p);
+                }
+            }
+
+            if (readyQueue.isEmpty()) {
+                time++;
+                continue;
+            }
+
+            Job current = readyQueue.poll();
+            int timeInQuantum = 0;
+
+            int quantum = current.quantum;
+            int q25 = (int) Math.ceil(quantum * 0.25);
+            int q50 = q25 + (int) Math.ceil(quantum * 0.25);
+
+            while (current.remainingTime > 0 && timeInQuantum < quantum) {
+
+                executionOrder.add(current.name);
+                current.remainingTime--;
+                time++;
+                timeInQuantum++;
+
+                addNewArrivals(processes, readyQueue, time, current);
+
+                if (current.remainingTime == 0) {
+                    current.finish(time);
+                    completed++;
+                    break;
+                }
+
+                // Check Priority Phase
+                if (timeInQuantum >= q25 && timeInQuantum < q50) {
+                    Job bestPriority = getBestPriorityProcess(readyQueue);
+                    if (bestPriority != null && bestPriority.priority < current.priority) {
+                        int remainingQuantum = current.quantum - timeInQuantum;
+                        current.priorityPreempted(remainingQuantum);
+                        readyQueue.add(current);
+
+                        readyQueue.remove(bestPriority);
+                        current = bestPriority;
+
+                        // Reset for new process
+                        timeInQuantum = 0;
+                        quantum = current.quantum;
+                        q25 = (int) Math.ceil(quantum * 0.25);
+                        q50 = q25 + (int) Math.ceil(quantum * 0.25);
+
+                        time += contextSwitch;
+                        continue;
+                    }
+                }
+
+                // Check SJF Phase
+                if (timeInQuantum >= q50) {
+                    Job shortestJob = getShortestJob(readyQueue);
+                    if (shortestJob != null && shortestJob.remainingTime < current.remainingTime) {
+                        int remainingQuantum = current.quantum - timeInQuantum;
+                        current.sjfPreempted(remainingQuantum);
+                        readyQueue.add(current);
+
+                        readyQueue.remove(shortestJob);
+                        current = shortestJob;
+
+                        // Reset for new process
+                        timeInQuantum = 0;
+                        quantum = current.quantum;
+                        q25 = (int) Math.ceil(quantum * 0.25);
+                        q50 = q25 + (int) Math.ceil(quantum * 0.25);
+
+                        time += contextSwitch;
+                        continue;
+                    }
+                }
+            }
+
+            // Quantum Expired
+            if (current.remainingTime > 0 && timeInQuantum == quantum) {
+                current.quantumExpired();
+                readyQueue.add(current);
+                time += contextSwitch;
+            }
+        }
+
+        Outcome outcome = new Outcome(processes, executionOrder);
+        processes.sort(Comparator.comparingInt(p -> p.id));
+        for (Job p : processes) {
+            outcome.quantumHistory.add(p.quantumHistory);
+        }
+        return outcome;
+    }
+
+    private static Job getBestPriorityProcess(Queue<Job> queue) {
+        Job best = null;
+        for (Job p : queue) {
+            if (best == null || p.priority < best.priority) {
+                best = p;
+            }
+        }
+        return best;
+    }
+
+    private static Job getShortestJob(Queue<Job> queue) {
+        Job best = null;
+        for (Job p : queue) {
+            if (best == null || p.remainingTime < best.remainingTime) {
+                best = p;
+            }
+        }
+        return best;
+    }
+
+    private static void addNewArrivals(List<Job> processes, Queue<Job> readyQueue, int time, Job current) {
+        for (Job p : processes) {
+            if (p.arrivalTime <= time && p.remainingTime > 0 && !readyQueue.contains(p) && p != current) {
+                readyQueue.add(p);
+            }
+        }
+    }
+
+    // The original AGProcess
+    private static final class Job extends Process {
+        int quantum;
+        List<Integer> quantumHistory;
+
+        Job(String name, int arrivalTime, int burstTime, int priority, int quantum) {
+            super(name, arrivalTime, burstTime, priority);
+            this.quantum = quantum;
+            this.quantumHistory = new ArrayList<>();
+            this.quantumHistory.add(quantum);
+        }
+
+        void finish(int currentTime) {
+            quantum = 0;
+            quantumHistory.add(0);
+            completionTime = currentTime;
+        }
+
+        void quantumExpired() {
+            quantum += 2;
+            quantumHistory.add(quantum);
+        }
+
+        void priorityPreempted(int remainingQuantum) {
+            quantum += (int) Math.ceil(remainingQuantum / 2.0);
+            quantumHistory.add(quantum);
+        }
+
+        void sjfPreempted(int remainingQuantum) {
+            quantum += remainingQuantum;
+            quantumHistory.add(quantum);
+        }
+    }
+
+    // The table's input columns in id order, as the programs got them from their input files
+    private static List<Process> processes(ProcessTable table) {
+        List<Process> processes = new ArrayList<>();
+        for (int id = 0; id < table.size; id++) {
+            Process p = new Process(table.name[id], table.arrival[id], table.burst[id], table.priority[id]);
+            p.id = id;
+            processes.add(p);
+        }
+        return processes;
+    }
+
+    private static List<String> names(List<Process> processes) {
+        List<String> names = new ArrayList<>();
+        for (Process p : processes) {
+            names.add(p.name);
+        }
+        return names;
+    }
+}
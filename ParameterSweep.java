@@ -0,0 +1,237 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Evaluates many context switch / RR quantum / aging interval settings on one workload in
+// parallel and reports the Pareto front.
+//
+//   java ParameterSweep <workload.json | workload.trace> [-s SJF,RR,Priority,AG,MLFQ,CFS]
+//                       [-c 0..3] [-q 1..10] [-a 1..10] [-r samples] [-seed 42]
+//                       [-f waiting,turnaround,maxwaiting] [-j threads] [-o points.csv]
+//
+// Ranges are "from..to" or comma lists. By default every combination a scheduler depends on is
+// run (SJF and AG: context switch; RR: context switch x quantum; MLFQ: context switch x top level
+// quantum; CFS: context switch x minimum granularity; Priority: context switch x aging
+// interval); with -r at most that many distinct combinations per scheduler are drawn at random.
+// The workload is loaded once and only read by the workers; each worker thread schedules on its
+// own copy of the table, reused for every point it runs.
+//
+// All objectives are minimized. Turnaround also counts the time blocked on I/O, which depends on
+// the order requests reach the devices, so it can rank points differently from waiting; the
+// default front adds the maximum waiting time to show the mean vs. starvation trade-off. Other
+// objectives: makespan.
+public class ParameterSweep {
+
+    static final String[] OBJECTIVES = {"waiting", "turnaround", "maxwaiting", "makespan"};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: java ParameterSweep <workload.json | workload.trace> [-s SJF,RR,Priority,AG,MLFQ,CFS] "
+                    + "[-c 0..3] [-q 1..10] [-a 1..10] [-r samples] [-seed 42] [-f waiting,turnaround,maxwaiting] "
+                    + "[-j threads] [-o points.csv]");
+            return;
+        }
+        File file = new File(args[0]);
+        String[] schedulers = BatchRunner.SCHEDULERS;
+        int[] contextSwitches = range("0..3");
+        int[] quanta = range("1..10");
+        int[] agingIntervals = range("1..10");
+        int samples = 0;
+        long seed = 42;
+        String[] objectives = {"waiting", "turnaround", "maxwaiting"};
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = null;
+
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-s" -> schedulers = args[i + 1].split(",");
+                case "-c" -> contextSwitches = range(args[i + 1]);
+                case "-q" -> quanta = range(args[i + 1]);
+                case "-a" -> agingIntervals = range(args[i + 1]);
+                case "-r" -> samples = Integer.parseInt(args[i + 1]);
+                case "-seed" -> seed = Long.parseLong(args[i + 1]);
+                case "-f" -> objectives = args[i + 1].split(",");
+                case "-j" -> threads = Integer.parseInt(args[i + 1]);
+                case "-o" -> out = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        for (String objective : objectives) {
+            if (!Arrays.asList(OBJECTIVES).contains(objective)) {
+                throw new IllegalArgumentException("Unknown objective " + objective);
+            }
+        }
+
+        BatchRunner.Workload workload = BatchRunner.Workload.load(file);
+        List<Point> points = new ArrayList<>();
+        for (String scheduler : schedulers) {
+            if (scheduler.equals("AG") && workload.missingSetting("AG") != null) {
+                System.out.println("Skipping AG: no quantum in " + file);
+                continue;
+            }
+            List<Point> grid = new ArrayList<>();
+            for (int cs : contextSwitches) {
+                for (int q : usesQuantum(scheduler) ? quanta : new int[]{0}) {
+                    for (int aging : scheduler.equals("Priority") ? agingIntervals : new int[]{0}) {
+                        grid.add(new Point(scheduler, cs, q, aging));
+                    }
+                }
+            }
+            if (samples > 0 && samples < grid.size()) {
+                Collections.shuffle(grid, new Random(seed ^ scheduler.hashCode()));
+                grid = grid.subList(0, samples);
+            }
+            points.addAll(grid);
+        }
+
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            evaluate(pool, workload.table, points);
+        }
+        long wallNanos = System.nanoTime() - start;
+
+        List<Point> front = paretoFront(points, objectives);
+        System.out.printf("%s: %d processes, %d points in %.3f s, %d on the Pareto front of %s%n%n",
+                file.getName(), workload.table.size, points.size(), wallNanos / 1e9, front.size(), String.join(" / ", objectives));
+        System.out.printf("%-9s %4s %4s %6s %12s %14s %12s %10s%n",
+                "Scheduler", "CS", "q", "aging", "avg Waiting", "avg Turnaround", "max Waiting", "Makespan");
+        for (Point p : front) {
+            System.out.printf("%-9s %4d %4s %6s %12.3f %14.3f %12d %10d%n", p.scheduler, p.contextSwitch,
+                    usesQuantum(p.scheduler) ? String.valueOf(p.quantum) : "-",
+                    p.scheduler.equals("Priority") ? String.valueOf(p.agingInterval) : "-",
+                    p.averageWaiting, p.averageTurnaround, p.maxWaiting, p.makespan);
+        }
+
+        if (out != null) {
+            Set<Point> onFront = Collections.newSetFromMap(new IdentityHashMap<>());
+            onFront.addAll(front);
+            try (PrintWriter csv = new PrintWriter(new FileWriter(out))) {
+                csv.println("scheduler,contextSwitch,quantum,agingInterval,avgWaiting,avgTurnaround,maxWaiting,makespan,pareto");
+                for (Point p : points) {
+                    csv.printf(Locale.ROOT, "%s,%d,%d,%d,%.3f,%.3f,%d,%d,%b%n", p.scheduler, p.contextSwitch, p.quantum,
+                            p.agingInterval, p.averageWaiting, p.averageTurnaround, p.maxWaiting, p.makespan, onFront.contains(p));
+                }
+            }
+        }
+    }
+
+    // Runs every point; results are written into the points themselves
+    static void evaluate(ExecutorService pool, ProcessTable source, List<Point> points) throws InterruptedException {
+        ThreadLocal<ProcessTable> scratch = ThreadLocal.withInitial(source::copy);
+        List<Future<?>> pending = new ArrayList<>(points.size());
+        for (Point p : points) {
+            pending.add(pool.submit(() -> run(p, scratch.get())));
+        }
+        for (Future<?> f : pending) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    static void run(Point p, ProcessTable table) {
+        SchedulerRun.schedule(p.scheduler, table, p.contextSwitch, p.quantum, p.agingInterval, null, null);
+        long totalWaiting = 0, totalTurnaround = 0;
+        for (int id = 0; id < table.size; id++) {
+            int waiting = table.waiting(id);
+            totalWaiting += waiting;
+            totalTurnaround += table.turnaround(id);
+            p.maxWaiting = Math.max(p.maxWaiting, waiting);
+            p.makespan = Math.max(p.makespan, table.completion[id]);
+        }
+        if (table.size > 0) {
+            p.averageWaiting = (double) totalWaiting / table.size;
+            p.averageTurnaround = (double) totalTurnaround / table.size;
+        }
+    }
+
+    // RR, MLFQ and CFS (whose levels / granularity are derived from it) take the quantum setting
+    static boolean usesQuantum(String scheduler) {
+        return scheduler.equals("RR") || scheduler.equals("MLFQ") || scheduler.equals("CFS");
+    }
+
+    // Points no other point beats on every objective, sorted by the first objective.
+    // Points with identical objective values are all kept.
+    static List<Point> paretoFront(List<Point> points, String[] objectives) {
+        List<Point> sorted = new ArrayList<>(points);
+        sorted.sort((a, b) -> {
+            for (String objective : objectives) {
+                int c = Double.compare(a.objective(objective), b.objective(objective));
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        });
+        // Sorted lexicographically, a point can only be dominated by one before it
+        List<Point> front = new ArrayList<>();
+        for (Point p : sorted) {
+            boolean dominated = false;
+            for (Point f : front) {
+                if (dominates(f, p, objectives)) {
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated) {
+                front.add(p);
+            }
+        }
+        return front;
+    }
+
+    static boolean dominates(Point a, Point b, String[] objectives) {
+        boolean better = false;
+        for (String objective : objectives) {
+            double x = a.objective(objective), y = b.objective(objective);
+            if (x > y) {
+                return false;
+            }
+            better |= x < y;
+        }
+        return better;
+    }
+
+    static int[] range(String spec) {
+        if (spec.contains("..")) {
+            String[] bounds = spec.split("\\.\\.");
+            int from = Integer.parseInt(bounds[0]), to = Integer.parseInt(bounds[1]);
+            int[] values = new int[Math.max(0, to - from + 1)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = from + i;
+            }
+            return values;
+        }
+        return Arrays.stream(spec.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    static class Point {
+        final String scheduler;
+        final int contextSwitch;
+        final int quantum;
+        final int agingInterval;
+        double averageWaiting;
+        double averageTurnaround;
+        int maxWaiting;
+        int makespan;
+
+        Point(String scheduler, int contextSwitch, int quantum, int agingInterval) {
+            this.scheduler = scheduler;
+            this.contextSwitch = contextSwitch;
+            this.quantum = quantum;
+            this.agingInterval = agingInterval;
+        }
+
+        double objective(String name) {
+            return switch (name) {
+                case "waiting" -> averageWaiting;
+                case "turnaround" -> averageTurnaround;
+                case "maxwaiting" -> maxWaiting;
+                case "makespan" -> makespan;
+                default -> throw new IllegalArgumentException("Unknown objective " + name);
+            };
+        }
+    }
+}
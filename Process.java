@@ -8,6 +8,7 @@ public class Process {
     int waitingTime;
     int turnaroundTime;
     int tempArrivalTime;
+    int id;
 
 
     public Process(String name, int arrivalTime, int burstTime, int priority) {
@@ -0,0 +1,344 @@
+import java.io.*;
+import java.util.*;
+
+// Struct-of-arrays process set: one primitive column per attribute, indexed by process id.
+// All engines run on a table directly; Process/AGProcess objects are only built as
+// views of the results (or filled back in when an engine is called with a List).
+//
+// The input columns are never touched by the engines, so the same table can be scheduled
+// again, by the same or another engine, after reset().
+//
+// A process either is a single CPU burst or alternates CPU and I/O bursts, starting and ending
+// on the CPU. In the second case its list cpu0, io0, cpu1, ..., cpuN is kept in ioBursts from
+// firstBurst[id] on and ioCount[id] is N; burst[id] is always the total CPU time. remaining[id]
+// counts down the current CPU burst and stays 0 while the process is blocked (see IoDevices).
+class ProcessTable implements WorkloadReader.ProcessConsumer {
+    int size;
+
+    // Input
+    String[] name;
+    int[] arrival;
+    int[] burst;
+    int[] priority;
+    int[] quantum;
+    int[] firstBurst;
+    int[] ioCount;
+    int[] ioBursts = new int[0];
+    int ioBurstsSize;
+
+    // I/O devices shared by all processes, see IoDevices
+    int ioDevices = 1;
+    int ioPolicy = IoDevices.FCFS;
+
+    // Run state and results
+    int[] remaining;
+    int[] currentPriority;
+    int[] agingAnchor; // Process.tempArrivalTime
+    int[] currentQuantum;
+    int[] completion;
+    int[] phase;   // I/O bursts done
+    int[] blocked; // time spent on I/O, waiting for a device included
+    QuantumHistory quantumHistory;
+
+    ProcessTable() {
+        this(16);
+    }
+
+    ProcessTable(int capacity) {
+        capacity = Math.max(1, capacity);
+        name = new String[capacity];
+        arrival = new int[capacity];
+        burst = new int[capacity];
+        priority = new int[capacity];
+        quantum = new int[capacity];
+        firstBurst = new int[capacity];
+        ioCount = new int[capacity];
+        remaining = new int[capacity];
+        currentPriority = new int[capacity];
+        agingAnchor = new int[capacity];
+        currentQuantum = new int[capacity];
+        completion = new int[capacity];
+        phase = new int[capacity];
+        blocked = new int[capacity];
+        quantumHistory = new QuantumHistory(capacity);
+    }
+
+    static ProcessTable of(List<? extends Process> processes) {
+        ProcessTable table = new ProcessTable(processes.size());
+        for (Process p : processes) {
+            table.add(p.name, p.arrivalTime, p.burstTime, p.priority, p instanceof AGProcess ag ? ag.quantum : 0);
+        }
+        return table;
+    }
+
+    // Same input columns, fresh run state; lets several engines run one workload concurrently
+    ProcessTable copy() {
+        ProcessTable copy = new ProcessTable(size);
+        copy.size = size;
+        System.arraycopy(name, 0, copy.name, 0, size);
+        System.arraycopy(arrival, 0, copy.arrival, 0, size);
+        System.arraycopy(burst, 0, copy.burst, 0, size);
+        System.arraycopy(priority, 0, copy.priority, 0, size);
+        System.arraycopy(quantum, 0, copy.quantum, 0, size);
+        System.arraycopy(firstBurst, 0, copy.firstBurst, 0, size);
+        System.arraycopy(ioCount, 0, copy.ioCount, 0, size);
+        copy.ioBursts = Arrays.copyOf(ioBursts, ioBurstsSize);
+        copy.ioBurstsSize = ioBurstsSize;
+        copy.ioDevices = ioDevices;
+        copy.ioPolicy = ioPolicy;
+        copy.quantumHistory.summaryOnly = quantumHistory.summaryOnly;
+        copy.reset();
+        return copy;
+    }
+
+    @Override
+    public void accept(String name, int arrival, int burst, int priority, int quantum) {
+        add(name, arrival, burst, priority, quantum);
+    }
+
+    @Override
+    public void accept(String name, int arrival, int[] bursts, int priority, int quantum) {
+        add(name, arrival, bursts, priority, quantum);
+    }
+
+    int add(String processName, int arrivalTime, int burstTime, int priorityValue, int quantumValue) {
+        if (size == arrival.length) {
+            grow(size * 2);
+        }
+        int id = size++;
+        name[id] = processName;
+        arrival[id] = arrivalTime;
+        burst[id] = burstTime;
+        priority[id] = priorityValue;
+        quantum[id] = quantumValue;
+        ioCount[id] = 0;
+        reset(id);
+        return id;
+    }
+
+    // bursts alternates CPU and I/O bursts, starting and ending with a CPU burst
+    int add(String processName, int arrivalTime, int[] bursts, int priorityValue, int quantumValue) {
+        if (bursts.length % 2 == 0) {
+            throw new IllegalArgumentException(processName + ": bursts must start and end with a CPU burst, got "
+                    + bursts.length + " of them");
+        }
+        int total = 0;
+        for (int b : bursts) {
+            if (b <= 0) {
+                throw new IllegalArgumentException(processName + ": bursts must be positive, got " + Arrays.toString(bursts));
+            }
+        }
+        for (int i = 0; i < bursts.length; i += 2) {
+            total += bursts[i];
+        }
+        if (bursts.length == 1) {
+            return add(processName, arrivalTime, total, priorityValue, quantumValue);
+        }
+        if (ioBurstsSize + bursts.length > ioBursts.length) {
+            ioBursts = Arrays.copyOf(ioBursts, Math.max(16, Math.max(ioBurstsSize + bursts.length, ioBursts.length * 2)));
+        }
+        int start = ioBurstsSize;
+        System.arraycopy(bursts, 0, ioBursts, start, bursts.length);
+        ioBurstsSize += bursts.length;
+        int id = add(processName, arrivalTime, total, priorityValue, quantumValue);
+        firstBurst[id] = start;
+        ioCount[id] = bursts.length / 2;
+        reset(id);
+        return id;
+    }
+
+    private void grow(int capacity) {
+        name = Arrays.copyOf(name, capacity);
+        arrival = Arrays.copyOf(arrival, capacity);
+        burst = Arrays.copyOf(burst, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        quantum = Arrays.copyOf(quantum, capacity);
+        firstBurst = Arrays.copyOf(firstBurst, capacity);
+        ioCount = Arrays.copyOf(ioCount, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        currentPriority = Arrays.copyOf(currentPriority, capacity);
+        agingAnchor = Arrays.copyOf(agingAnchor, capacity);
+        currentQuantum = Arrays.copyOf(currentQuantum, capacity);
+        completion = Arrays.copyOf(completion, capacity);
+        phase = Arrays.copyOf(phase, capacity);
+        blocked = Arrays.copyOf(blocked, capacity);
+        quantumHistory.grow(capacity);
+    }
+
+    // Puts every process back into its not-yet-scheduled state
+    void reset() {
+        for (int id = 0; id < size; id++) {
+            reset(id);
+        }
+        quantumHistory.clear(size);
+    }
+
+    private void reset(int id) {
+        remaining[id] = cpuBurst(id, 0);
+        currentPriority[id] = priority[id];
+        agingAnchor[id] = arrival[id];
+        currentQuantum[id] = quantum[id];
+        completion[id] = 0;
+        phase[id] = 0;
+        blocked[id] = 0;
+        quantumHistory.forget(id);
+    }
+
+    // Forgets every process but keeps the columns, so the table can be refilled with the next
+    // workload of a batch (see BatchScheduler) without allocating
+    void clear() {
+        size = 0;
+        ioBurstsSize = 0;
+    }
+
+    boolean hasIo() {
+        return ioBurstsSize > 0;
+    }
+
+    // k-th CPU burst of id
+    int cpuBurst(int id, int k) {
+        return ioCount[id] == 0 ? burst[id] : ioBursts[firstBurst[id] + 2 * k];
+    }
+
+    // k-th I/O burst of id
+    int ioBurst(int id, int k) {
+        return ioBursts[firstBurst[id] + 2 * k + 1];
+    }
+
+    // The list add() was given
+    int[] bursts(int id) {
+        return ioCount[id] == 0 ? new int[]{burst[id]}
+                : Arrays.copyOfRange(ioBursts, firstBurst[id], firstBurst[id] + 2 * ioCount[id] + 1);
+    }
+
+    // Has not been on the CPU yet
+    boolean fresh(int id) {
+        return phase[id] == 0 && remaining[id] == cpuBurst(id, 0);
+    }
+
+    // CPU time used so far
+    int executed(int id) {
+        int done = cpuBurst(id, phase[id]) - remaining[id];
+        for (int k = 0; k < phase[id]; k++) {
+            done += cpuBurst(id, k);
+        }
+        return done;
+    }
+
+    // Done with a CPU burst and not back from the I/O burst after it yet
+    boolean isBlocked(int id) {
+        return remaining[id] == 0 && phase[id] < ioCount[id];
+    }
+
+    // Ids ordered by arrival time; equal arrivals keep id order
+    int[] arrivalOrder() {
+        int[] order = new int[size];
+        arrivalOrder(order, new long[size]);
+        return order;
+    }
+
+    // The same into the first size entries of order, with keys as scratch (both at least size long)
+    void arrivalOrder(int[] order, long[] keys) {
+        for (int id = 0; id < size; id++) {
+            keys[id] = ((long) arrival[id] << 32) | id;
+        }
+        Arrays.sort(keys, 0, size);
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+    }
+
+    // Input columns and run state, for Snapshot
+    void save(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int id = 0; id < size; id++) {
+            out.writeUTF(name[id] == null ? "" : name[id]);
+        }
+        for (int[] column : new int[][]{arrival, burst, priority, quantum, firstBurst, ioCount, remaining, currentPriority,
+                agingAnchor, currentQuantum, completion, phase, blocked}) {
+            for (int id = 0; id < size; id++) {
+                out.writeInt(column[id]);
+            }
+        }
+        out.writeInt(ioBurstsSize);
+        for (int i = 0; i < ioBurstsSize; i++) {
+            out.writeInt(ioBursts[i]);
+        }
+        out.writeInt(ioDevices);
+        out.writeInt(ioPolicy);
+        quantumHistory.save(out, size);
+    }
+
+    static ProcessTable restore(DataInput in) throws IOException {
+        int size = in.readInt();
+        ProcessTable table = new ProcessTable(size);
+        table.size = size;
+        for (int id = 0; id < size; id++) {
+            table.name[id] = in.readUTF();
+        }
+        for (int[] column : new int[][]{table.arrival, table.burst, table.priority, table.quantum, table.firstBurst,
+                table.ioCount, table.remaining, table.currentPriority, table.agingAnchor, table.currentQuantum,
+                table.completion, table.phase, table.blocked}) {
+            for (int id = 0; id < size; id++) {
+                column[id] = in.readInt();
+            }
+        }
+        table.ioBurstsSize = in.readInt();
+        table.ioBursts = new int[table.ioBurstsSize];
+        for (int i = 0; i < table.ioBurstsSize; i++) {
+            table.ioBursts[i] = in.readInt();
+        }
+        table.ioDevices = in.readInt();
+        table.ioPolicy = in.readInt();
+        table.quantumHistory.restore(in, size);
+        return table;
+    }
+
+    boolean finished(int id) {
+        return remaining[id] == 0 && phase[id] == ioCount[id];
+    }
+
+    // 0 for processes that never finished
+    int turnaround(int id) {
+        return finished(id) ? completion[id] - arrival[id] : 0;
+    }
+
+    // Time spent ready but not running; blocked time does not count
+    int waiting(int id) {
+        return finished(id) ? turnaround(id) - burst[id] - blocked[id] : 0;
+    }
+
+    // Copies the results for ids 0..size-1 back into the matching objects
+    void copyResultsTo(List<? extends Process> processes) {
+        for (int id = 0; id < size; id++) {
+            Process p = processes.get(id);
+            p.priority = currentPriority[id];
+            p.tempArrivalTime = agingAnchor[id];
+            copyResults(p, id);
+        }
+    }
+
+    Process view(int id) {
+        Process p = new Process(name[id], arrival[id], burst[id], priority[id]);
+        copyResults(p, id);
+        return p;
+    }
+
+    AGProcess agView(int id) {
+        AGProcess p = new AGProcess(name[id], arrival[id], burst[id], priority[id], quantum[id]);
+        copyResults(p, id);
+        return p;
+    }
+
+    private void copyResults(Process p, int id) {
+        p.id = id;
+        p.remainingTime = remaining[id];
+        p.completionTime = completion[id];
+        p.turnaroundTime = turnaround(id);
+        p.waitingTime = waiting(id);
+        if (p instanceof AGProcess ag) {
+            ag.quantum = currentQuantum[id];
+            quantumHistory.copyTo(id, ag.quantumHistory);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+import java.io.*;
+import java.util.*;
+
+// AG quantum history of every process in a table, kept as one shared append-only log.
+// Each entry is a (value, next) pair and each process chains its own entries from head to
+// tail, so recording a quantum never allocates per process and clear() just rewinds the log.
+// Once the log has grown to the size of a run, rerunning the same workload allocates nothing.
+//
+// With summaryOnly set, the log is skipped and only count, max and final quantum are kept.
+// Switch modes only between runs (the table's reset() clears the history).
+class QuantumHistory {
+    boolean summaryOnly;
+
+    private int[] count;
+    private int[] max;
+    private int[] last;
+    private int[] head;
+    private int[] tail;
+
+    private int[] values = new int[64];
+    private int[] next = new int[64];
+    private int length = 0;
+
+    QuantumHistory(int capacity) {
+        capacity = Math.max(1, capacity);
+        count = new int[capacity];
+        max = new int[capacity];
+        last = new int[capacity];
+        head = new int[capacity];
+        tail = new int[capacity];
+    }
+
+    void grow(int capacity) {
+        count = Arrays.copyOf(count, capacity);
+        max = Arrays.copyOf(max, capacity);
+        last = Arrays.copyOf(last, capacity);
+        head = Arrays.copyOf(head, capacity);
+        tail = Arrays.copyOf(tail, capacity);
+    }
+
+    // Forgets the history of ids 0..size-1
+    void clear(int size) {
+        Arrays.fill(count, 0, size, 0);
+        length = 0;
+    }
+
+    // Forgets the history of a single id; its old entries stay in the log until the next clear
+    void forget(int id) {
+        count[id] = 0;
+    }
+
+    void record(int id, int value) {
+        if (count[id] == 0 || value > max[id]) {
+            max[id] = value;
+        }
+        last[id] = value;
+        count[id]++;
+        if (summaryOnly) {
+            return;
+        }
+
+        if (length == values.length) {
+            values = Arrays.copyOf(values, length * 2);
+            next = Arrays.copyOf(next, length * 2);
+        }
+        int entry = length++;
+        values[entry] = value;
+        next[entry] = -1;
+        if (count[id] == 1) {
+            head[id] = entry;
+        } else {
+            next[tail[id]] = entry;
+        }
+        tail[id] = entry;
+    }
+
+    // Number of quanta recorded for id (including the initial one)
+    int count(int id) {
+        return count[id];
+    }
+
+    int max(int id) {
+        return max[id];
+    }
+
+    // Last recorded quantum; 0 for a finished process
+    int last(int id) {
+        return last[id];
+    }
+
+    // Full history of id in recording order; empty in summary mode
+    IntList get(int id) {
+        IntList history = new IntList(summaryOnly ? 1 : Math.max(1, count[id]));
+        copyTo(id, history);
+        return history;
+    }
+
+    // History of ids 0..size-1; the log is written per process and rebuilt by recording it again
+    void save(DataOutput out, int size) throws IOException {
+        out.writeBoolean(summaryOnly);
+        for (int id = 0; id < size; id++) {
+            out.writeInt(count[id]);
+            if (summaryOnly) {
+                out.writeInt(max[id]);
+                out.writeInt(last[id]);
+            } else {
+                for (int entry = count[id] == 0 ? -1 : head[id]; entry != -1; entry = next[entry]) {
+                    out.writeInt(values[entry]);
+                }
+            }
+        }
+    }
+
+    // Into a cleared history with room for size ids
+    void restore(DataInput in, int size) throws IOException {
+        summaryOnly = in.readBoolean();
+        for (int id = 0; id < size; id++) {
+            int entries = in.readInt();
+            if (summaryOnly) {
+                count[id] = entries;
+                max[id] = in.readInt();
+                last[id] = in.readInt();
+            } else {
+                for (int i = 0; i < entries; i++) {
+                    record(id, in.readInt());
+                }
+            }
+        }
+    }
+
+    void copyTo(int id, IntList history) {
+        history.clear();
+        if (summaryOnly) {
+            return;
+        }
+        for (int entry = count[id] == 0 ? -1 : head[id]; entry != -1; entry = next[entry]) {
+            history.add(values[entry]);
+        }
+    }
+}
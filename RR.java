@@ -1,10 +1,14 @@
+import java.io.*;
 import java.util.*;
 
-public class RR {
+public class RR implements Scheduler {
     List<Process> processes = new ArrayList<>();
     List<Process> executionOrder = new ArrayList<>();
     int contextSwitch;
     int timeQuantum;
+    ProcessTable table;
+    private final Timeline timeline = new Timeline();
+    private SchedulerMetrics metrics;
 
     public RR(List<Process> inputProcesses, int contextSwitch, int timeQuantum) {
         this.contextSwitch = contextSwitch;
@@ -14,40 +18,198 @@ public class RR {
         }
     }
 
+    // Runs directly on the table's columns; processes and executionOrder stay empty
+    public RR(ProcessTable table, int contextSwitch, int timeQuantum) {
+        this.contextSwitch = contextSwitch;
+        this.timeQuantum = timeQuantum;
+        this.table = table;
+    }
+
+    public RR(int contextSwitch, int timeQuantum) {
+        this.contextSwitch = contextSwitch;
+        this.timeQuantum = timeQuantum;
+    }
+
+    @Override
+    public String name() {
+        return "RR";
+    }
+
+    @Override
+    public ScheduleResult schedule(ProcessTable table) {
+        timeline.clear();
+        run(table, timeline);
+        return ScheduleResult.of(name(), table, timeline);
+    }
+
+    @Override
+    public Scheduler withMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     public void execute() {
-        Queue<Process> queue = new LinkedList<>();
-        int currentTime = 0;
+        if (table != null) {
+            run(table, null);
+            return;
+        }
         processes.sort(Comparator.comparingInt(p -> p.arrivalTime));
+        ProcessTable sorted = ProcessTable.of(processes);
+        timeline.clear();
+        run(sorted, timeline);
+        sorted.copyResultsTo(processes);
+        for (int i = 0; i < timeline.size; i++) {
+            if (!timeline.isContextSwitch(i)) {
+                executionOrder.add(processes.get(timeline.process[i]));
+            }
+        }
+    }
+
+    private void run(ProcessTable table, Timeline timeline) {
+        table.reset();
+        new Run(table, contextSwitch, timeQuantum, timeline).withMetrics(metrics).submitAll().advance(Integer.MAX_VALUE);
+    }
+
+    // Resumable RR core, see SchedulerRun. Advances a whole slice at a time: O(slices + n)
+    // regardless of burst lengths or idle gaps. Arrivals up to the end of a slice are queued
+    // before the preempted process goes back in, and arrivals during the following context
+    // switch after it. Every slice becomes its own timeline segment.
+    static class Run extends SchedulerRun {
+        final int contextSwitch;
+        final int timeQuantum;
+        final IntQueue queue;
+
+        int current = -1; // process in its slice, -1 between slices
+        int sliceEnd;
 
-        int i = 0;
-        while (i < processes.size() && processes.get(i).arrivalTime <= currentTime) {
-            queue.add(processes.get(i));
-            i++;
+        Run(ProcessTable table, int contextSwitch, int timeQuantum, Timeline timeline) {
+            super(table, timeline);
+            this.contextSwitch = contextSwitch;
+            this.timeQuantum = timeQuantum;
+            this.queue = new IntQueue(table.size);
         }
 
-        while (!queue.isEmpty()) {
-            Process current = queue.poll();
-            executionOrder.add(current);
+        @Override
+        void advance(int limit) {
+            int[] remaining = table.remaining;
 
-            int execTime = Math.min(timeQuantum, current.remainingTime);
+            while (true) {
+                if (current == -1) {
+                    if (time >= limit) {
+                        return;
+                    }
+                    admit(time);
+                    // CPU idle → jump straight to the next arrival
+                    if (queue.isEmpty()) {
+                        if (arrivals.peekTime() >= limit) {
+                            return;
+                        }
+                        if (metrics != null) {
+                            metrics.idle(time, arrivals.peekTime());
+                        }
+                        time = arrivals.peekTime();
+                        continue;
+                    }
+                    current = queue.poll();
+                    if (metrics != null) {
+                        metrics.dispatch(table, current, time, queue.size());
+                    }
+                    sliceEnd = time + Math.min(timeQuantum, remaining[current]);
+                }
+
+                int until = Math.min(sliceEnd, limit);
+                if (until > time) {
+                    remaining[current] -= until - time;
+                    if (timeline != null) {
+                        timeline.run(current, time, until);
+                    }
+                    time = until;
+                }
 
-            for (int t = 0; t < execTime; t++) {
-                currentTime++;
-                while (i < processes.size() && processes.get(i).arrivalTime <= currentTime) {
-                    queue.add(processes.get(i));
-                    i++;
+                if (remaining[current] == 0) {
+                    boolean completed = burstDone(current, time);
+                    if (timeline != null) {
+                        timeline.end(completed ? Timeline.COMPLETION : Timeline.BLOCKED);
+                    }
+                    current = -1;
+                    continue;
                 }
+                // Arrivals up to the slice end must be known before the process is queued again
+                if (sliceEnd >= limit) {
+                    return;
+                }
+                admit(sliceEnd);
+                queue.add(current);
+                if (timeline != null) {
+                    timeline.end(Timeline.QUANTUM);
+                    timeline.contextSwitch(queue.peek(), time, time + contextSwitch);
+                }
+                time += contextSwitch;
+                if (metrics != null) {
+                    metrics.preempted(Timeline.QUANTUM);
+                    metrics.contextSwitch(contextSwitch);
+                }
+                current = -1;
+            }
+        }
+
+        @Override
+        void saveState(DataOutput out) throws IOException {
+            out.writeInt(current);
+            out.writeInt(sliceEnd);
+            out.writeInt(queue.size());
+            for (int i = 0; i < queue.size(); i++) {
+                out.writeInt(queue.get(i));
             }
+        }
 
-            current.remainingTime -= execTime;
+        @Override
+        void restoreState(DataInput in) throws IOException {
+            current = in.readInt();
+            sliceEnd = in.readInt();
+            for (int count = in.readInt(); count > 0; count--) {
+                queue.add(in.readInt());
+            }
+        }
 
-            if (current.remainingTime > 0) {
-                currentTime += contextSwitch;
-                queue.add(current);
-            } else {
-                current.completionTime = currentTime;
-                current.turnaroundTime = current.completionTime - current.arrivalTime;
-                current.waitingTime = current.turnaroundTime - current.burstTime;
+        @Override
+        void resetState() {
+            current = -1;
+            sliceEnd = 0;
+            queue.clear();
+        }
+
+        @Override
+        int readyCount() {
+            return queue.size();
+        }
+
+        @Override
+        int runningProcess() {
+            return current;
+        }
+
+        @Override
+        int nextEvent() {
+            if (current != -1) {
+                return sliceEnd;
+            }
+            return queue.isEmpty() ? Integer.MAX_VALUE : time;
+        }
+
+        @Override
+        int steal() {
+            return queue.isEmpty() ? -1 : queue.poll();
+        }
+
+        @Override
+        void adopt(int id) {
+            queue.add(id);
+        }
+
+        private void admit(int upTo) {
+            while (arrivals.peekTime() <= upTo) {
+                queue.add(arrivals.poll());
             }
         }
     }
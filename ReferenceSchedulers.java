@@ -0,0 +1,544 @@
+import java.util.*;
+
+// Straightforward versions of the engines: one time unit per step, plain collections and linear
+// scans, no event skipping and no incremental bookkeeping. They exist only as the specification
+// DifferentialHarness checks the fast engines' segments and metrics against (SJF, RR, Priority and
+// AG outcomes are also checked against the original programs in OriginalSchedulers), so they
+// favour being obviously right over being fast; never use them for real runs.
+//
+// Each one runs a reset table to completion and reports through the same Timeline and
+// SchedulerMetrics calls as the engine it mirrors (both must be given). Aging in the priority
+// reference is applied eagerly on every tick, as in the original implementation.
+final class ReferenceSchedulers {
+
+    private ReferenceSchedulers() {
+    }
+
+    static void sjf(ProcessTable table, int contextSwitch, Timeline timeline, SchedulerMetrics metrics) {
+        table.reset();
+        Arrivals arrivals = new Arrivals(table);
+        List<Integer> ready = new ArrayList<>();
+        int[] remaining = table.remaining;
+        int time = 0, completed = 0, running = -1;
+        boolean started = false;
+
+        while (completed < table.size) {
+            while (arrivals.due(time)) {
+                ready.add(arrivals.poll());
+            }
+            if (running == -1 && ready.isEmpty()) {
+                metrics.idle(time, time + 1);
+                time++;
+                continue;
+            }
+
+            // Shortest remaining time, then earliest arrival, then lowest id
+            int best = -1;
+            for (int id : ready) {
+                if (best == -1 || shorter(table, id, best)) {
+                    best = id;
+                }
+            }
+            int next = running;
+            if (running == -1 || (best != -1 && shorter(table, best, running))) {
+                next = best;
+                ready.remove((Integer) best);
+                if (running != -1) {
+                    ready.add(running);
+                    timeline.end(Timeline.SJF);
+                    metrics.preempted(Timeline.SJF);
+                }
+            }
+            if (running != next && started) {
+                timeline.contextSwitch(next, time, time + contextSwitch);
+                metrics.contextSwitch(contextSwitch);
+                time += contextSwitch;
+            }
+            started = true;
+            running = next;
+
+            timeline.run(running, time, time + 1);
+            remaining[running]--;
+            time++;
+            if (remaining[running] == 0) {
+                complete(table, metrics, running, time);
+                timeline.end(Timeline.COMPLETION);
+                completed++;
+                running = -1;
+            }
+        }
+    }
+
+    private static boolean shorter(ProcessTable table, int a, int b) {
+        if (table.remaining[a] != table.remaining[b]) {
+            return table.remaining[a] < table.remaining[b];
+        }
+        if (table.arrival[a] != table.arrival[b]) {
+            return table.arrival[a] < table.arrival[b];
+        }
+        return a < b;
+    }
+
+    static void roundRobin(ProcessTable table, int contextSwitch, int quantum, Timeline timeline, SchedulerMetrics metrics) {
+        table.reset();
+        Arrivals arrivals = new Arrivals(table);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int[] remaining = table.remaining;
+        int time = 0, completed = 0;
+
+        while (completed < table.size) {
+            while (arrivals.due(time)) {
+                queue.add(arrivals.poll());
+            }
+            if (queue.isEmpty()) {
+                metrics.idle(time, time + 1);
+                time++;
+                continue;
+            }
+
+            int current = queue.poll();
+            int slice = Math.min(quantum, remaining[current]);
+            for (int i = 0; i < slice; i++) {
+                timeline.run(current, time, time + 1);
+                remaining[current]--;
+                time++;
+            }
+            if (remaining[current] == 0) {
+                timeline.end(Timeline.COMPLETION);
+                complete(table, metrics, current, time);
+                completed++;
+                continue;
+            }
+            // Whatever arrived during the slice queues up before the preempted process
+            while (arrivals.due(time)) {
+                queue.add(arrivals.poll());
+            }
+            queue.add(current);
+            timeline.end(Timeline.QUANTUM);
+            timeline.contextSwitch(queue.peek(), time, time + contextSwitch);
+            metrics.preempted(Timeline.QUANTUM);
+            metrics.contextSwitch(contextSwitch);
+            time += contextSwitch;
+        }
+    }
+
+    private static final int NONE = -2; // nothing has run yet
+    private static final int IDLE = -1; // CPU had nothing to run
+
+    static void priority(ProcessTable table, int agingInterval, int contextSwitch, Timeline timeline, SchedulerMetrics metrics) {
+        table.reset();
+        Arrivals arrivals = new Arrivals(table);
+        List<Integer> queue = new ArrayList<>();
+        int[] remaining = table.remaining;
+        int time = 0;
+        int lastProcess = NONE;
+
+        while (true) {
+            while (arrivals.due(time)) {
+                queue.add(arrivals.poll());
+            }
+            if (queue.isEmpty()) {
+                if (!arrivals.hasMore()) {
+                    return;
+                }
+                if (lastProcess == NONE || lastProcess == IDLE) {
+                    metrics.idle(time, time + 1);
+                    time = tick(table, queue, arrivals, agingInterval, time);
+                    continue;
+                }
+            }
+
+            int current = IDLE;
+            for (int id : queue) {
+                if (current == IDLE || higherPriority(table, id, current)) {
+                    current = id;
+                }
+            }
+            queue.remove((Integer) current);
+
+            if (current != IDLE && lastProcess == NONE) {
+                lastProcess = current;
+            } else if (lastProcess != current && lastProcess != IDLE) {
+                int previous = lastProcess;
+                lastProcess = current;
+                if (current != IDLE) {
+                    queue.add(current);
+                }
+                timeline.end(Timeline.PRIORITY);
+                timeline.contextSwitch(current, time, time + contextSwitch);
+                if (previous >= 0 && remaining[previous] > 0) {
+                    metrics.preempted(Timeline.PRIORITY);
+                }
+                metrics.contextSwitch(contextSwitch);
+                for (int i = 0; i < contextSwitch; i++) {
+                    time = tick(table, queue, arrivals, agingInterval, time);
+                }
+                continue;
+            }
+
+            // once the CPU has been idle, later switches happen without a context switch
+            if (timeline.running() != current) {
+                timeline.end(Timeline.PRIORITY);
+            }
+            timeline.run(current, time, time + 1);
+            remaining[current]--;
+            time = tick(table, queue, arrivals, agingInterval, time);
+            if (remaining[current] > 0) {
+                table.agingAnchor[current] = time;
+                queue.add(current);
+            } else {
+                complete(table, metrics, current, time);
+                timeline.end(Timeline.COMPLETION);
+            }
+        }
+    }
+
+    // One time unit passes: every queued process ages on each multiple of agingInterval since
+    // it was queued, then the processes arriving at the new time join
+    private static int tick(ProcessTable table, List<Integer> queue, Arrivals arrivals, int agingInterval, int time) {
+        time++;
+        for (int id : queue) {
+            if ((time - table.agingAnchor[id]) % agingInterval == 0) {
+                table.currentPriority[id] = Math.max(1, table.currentPriority[id] - 1);
+            }
+        }
+        while (arrivals.due(time)) {
+            queue.add(arrivals.poll());
+        }
+        return time;
+    }
+
+    private static boolean higherPriority(ProcessTable table, int a, int b) {
+        if (table.currentPriority[a] != table.currentPriority[b]) {
+            return table.currentPriority[a] < table.currentPriority[b];
+        }
+        if (table.arrival[a] != table.arrival[b]) {
+            return table.arrival[a] < table.arrival[b];
+        }
+        return table.name[a].compareTo(table.name[b]) < 0;
+    }
+
+    static void ag(ProcessTable table, int contextSwitch, Timeline timeline, SchedulerMetrics metrics) {
+        table.reset();
+        Arrivals arrivals = new Arrivals(table);
+        List<Integer> fifo = new ArrayList<>();
+        int[] remaining = table.remaining;
+        int[] quanta = table.currentQuantum;
+        int[] priority = table.priority;
+        for (int id = 0; id < table.size; id++) {
+            table.quantumHistory.record(id, quanta[id]);
+        }
+        int time = 0, completed = 0;
+        int current = -1, timeInQuantum = 0, quantum = 0, q25 = 0, q50 = 0;
+
+        while (completed < table.size) {
+            if (current == -1) {
+                while (arrivals.due(time)) {
+                    fifo.add(arrivals.poll());
+                }
+                if (fifo.isEmpty()) {
+                    metrics.idle(time, time + 1);
+                    time++;
+                    continue;
+                }
+                current = fifo.remove(0);
+                timeInQuantum = 0;
+                quantum = quanta[current];
+                q25 = (int) Math.ceil(quantum * 0.25);
+                q50 = q25 + (int) Math.ceil(quantum * 0.25);
+            }
+
+            timeline.run(current, time, time + 1);
+            remaining[current]--;
+            time++;
+            timeInQuantum++;
+            while (arrivals.due(time)) {
+                fifo.add(arrivals.poll());
+            }
+
+            if (remaining[current] == 0) {
+                quanta[current] = 0;
+                table.quantumHistory.record(current, 0);
+                timeline.end(Timeline.COMPLETION);
+                complete(table, metrics, current, time);
+                completed++;
+                current = -1;
+                continue;
+            }
+
+            // Second quarter: a process with a strictly better priority takes over; ties go to
+            // the one queued first
+            int preemptor = -1, reason = -1;
+            if (timeInQuantum >= q25 && timeInQuantum < q50) {
+                int best = -1;
+                for (int id : fifo) {
+                    if (best == -1 || priority[id] < priority[best]) {
+                        best = id;
+                    }
+                }
+                if (best != -1 && priority[best] < priority[current]) {
+                    quanta[current] += (int) Math.ceil((quanta[current] - timeInQuantum) / 2.0);
+                    preemptor = best;
+                    reason = Timeline.PRIORITY;
+                }
+            }
+            // Second half: a strictly shorter job takes over
+            if (preemptor == -1 && timeInQuantum >= q50) {
+                int shortest = -1;
+                for (int id : fifo) {
+                    if (shortest == -1 || remaining[id] < remaining[shortest]) {
+                        shortest = id;
+                    }
+                }
+                if (shortest != -1 && remaining[shortest] < remaining[current]) {
+                    quanta[current] += quanta[current] - timeInQuantum;
+                    preemptor = shortest;
+                    reason = Timeline.SJF;
+                }
+            }
+            if (preemptor != -1) {
+                table.quantumHistory.record(current, quanta[current]);
+                fifo.add(current);
+                fifo.remove((Integer) preemptor);
+                timeline.end(reason);
+                timeline.contextSwitch(preemptor, time, time + contextSwitch);
+                metrics.preempted(reason);
+                metrics.contextSwitch(contextSwitch);
+                time += contextSwitch;
+                current = preemptor;
+                timeInQuantum = 0;
+                quantum = quanta[current];
+                q25 = (int) Math.ceil(quantum * 0.25);
+                q50 = q25 + (int) Math.ceil(quantum * 0.25);
+                continue;
+            }
+
+            if (timeInQuantum == quantum) {
+                quanta[current] += 2;
+                table.quantumHistory.record(current, quanta[current]);
+                fifo.add(current);
+                timeline.end(Timeline.QUANTUM);
+                timeline.contextSwitch(fifo.get(0), time, time + contextSwitch);
+                metrics.preempted(Timeline.QUANTUM);
+                metrics.contextSwitch(contextSwitch);
+                time += contextSwitch;
+                current = -1;
+            }
+        }
+    }
+
+    static void mlfq(ProcessTable table, int contextSwitch, int[] quanta, int boostInterval, Timeline timeline, SchedulerMetrics metrics) {
+        table.reset();
+        Arrivals arrivals = new Arrivals(table);
+        int levels = quanta.length;
+        List<ArrayDeque<Integer>> queues = new ArrayList<>();
+        for (int l = 0; l < levels; l++) {
+            queues.add(new ArrayDeque<>());
+        }
+        int[] remaining = table.remaining;
+        int[] level = new int[table.size];
+        int[] allotment = new int[table.size];
+        int time = 0, completed = 0, current = -1, last = -1;
+        long nextBoost = boostInterval > 0 ? boostInterval : Long.MAX_VALUE;
+
+        while (completed < table.size) {
+            while (arrivals.due(time)) {
+                int id = arrivals.poll();
+                level[id] = 0;
+                allotment[id] = quanta[0];
+                queues.get(0).addLast(id);
+            }
+            if (time >= nextBoost) {
+                for (int l = 1; l < levels; l++) {
+                    queues.get(0).addAll(queues.get(l));
+                    queues.get(l).clear();
+                }
+                for (int id : queues.get(0)) {
+                    level[id] = 0;
+                    allotment[id] = quanta[0];
+                }
+                if (current != -1) {
+                    level[current] = 0;
+                    allotment[current] = quanta[0];
+                }
+                nextBoost = ((long) time / boostInterval + 1) * boostInterval;
+            }
+
+            if (current != -1) {
+                if (allotment[current] == 0) {
+                    level[current] = Math.min(level[current] + 1, levels - 1);
+                    allotment[current] = quanta[level[current]];
+                    queues.get(level[current]).addLast(current);
+                    current = -1;
+                    timeline.end(Timeline.QUANTUM);
+                    metrics.preempted(Timeline.QUANTUM);
+                } else {
+                    for (int l = 0; l < level[current]; l++) {
+                        if (!queues.get(l).isEmpty()) {
+                            queues.get(level[current]).addFirst(current);
+                            current = -1;
+                            timeline.end(Timeline.PRIORITY);
+                            metrics.preempted(Timeline.PRIORITY);
+                            break;
+                        }
+                    }
+                }
+            }
+
+            if (current == -1) {
+                int l = 0;
+                while (l < levels && queues.get(l).isEmpty()) {
+                    l++;
+                }
+                if (l == levels) {
+                    metrics.idle(time, time + 1);
+                    time++;
+                    continue;
+                }
+                current = queues.get(l).pollFirst();
+                if (last != -1 && current != last) {
+                    timeline.contextSwitch(current, time, time + contextSwitch);
+                    metrics.contextSwitch(contextSwitch);
+                    time += contextSwitch;
+                    last = current;
+                    // arrivals and boosts during the switch are looked at before it runs
+                    continue;
+                }
+                last = current;
+            }
+
+            timeline.run(current, time, time + 1);
+            remaining[current]--;
+            allotment[current]--;
+            time++;
+            if (remaining[current] == 0) {
+                timeline.end(Timeline.COMPLETION);
+                complete(table, metrics, current, time);
+                completed++;
+                current = -1;
+            }
+        }
+    }
+
+    static void cfs(ProcessTable table, int contextSwitch, int targetLatency, int minGranularity, Timeline timeline, SchedulerMetrics metrics) {
+        table.reset();
+        Arrivals arrivals = new Arrivals(table);
+        long[] vruntime = new long[table.size];
+        List<Integer> runnable = new ArrayList<>();
+        int[] remaining = table.remaining;
+        int[] nice = table.priority;
+        int time = 0, completed = 0, current = -1, last = -1;
+        long minVruntime = 0, totalWeight = 0, sliceEnd = 0;
+
+        while (completed < table.size) {
+            // min_vruntime follows the smaller of the running and the leftmost vruntime
+            if (current != -1) {
+                long smallest = vruntime[current];
+                for (int id : runnable) {
+                    smallest = Math.min(smallest, vruntime[id]);
+                }
+                minVruntime = Math.max(minVruntime, smallest);
+                if (remaining[current] == 0) {
+                    timeline.end(Timeline.COMPLETION);
+                    totalWeight -= CFSScheduler.weight(nice[current]);
+                    complete(table, metrics, current, time);
+                    completed++;
+                    current = -1;
+                    continue;
+                }
+            }
+
+            boolean woken = false;
+            while (arrivals.due(time)) {
+                int id = arrivals.poll();
+                vruntime[id] = minVruntime;
+                totalWeight += CFSScheduler.weight(nice[id]);
+                runnable.add(id);
+                woken = true;
+            }
+            if (current == -1) {
+                if (runnable.isEmpty()) {
+                    metrics.idle(time, time + 1);
+                    time++;
+                    continue;
+                }
+                current = leftmost(runnable, vruntime);
+                runnable.remove((Integer) current);
+                if (last != -1 && current != last) {
+                    timeline.contextSwitch(current, time, time + contextSwitch);
+                    metrics.contextSwitch(contextSwitch);
+                    time += contextSwitch;
+                }
+                last = current;
+                long count = runnable.size() + 1;
+                long period = Math.max(count * minGranularity, targetLatency);
+                sliceEnd = time + Math.max(minGranularity, period * CFSScheduler.weight(nice[current]) / totalWeight);
+                // arrivals during the switch are looked at before it runs
+                continue;
+            }
+
+            if (time >= sliceEnd) {
+                runnable.add(current);
+                current = -1;
+                timeline.end(Timeline.QUANTUM);
+                metrics.preempted(Timeline.QUANTUM);
+                continue;
+            }
+            if (woken) {
+                int first = leftmost(runnable, vruntime);
+                if (vruntime[current] - vruntime[first] > minGranularity * CFSScheduler.inverseWeight(nice[first])) {
+                    runnable.add(current);
+                    current = -1;
+                    timeline.end(Timeline.PRIORITY);
+                    metrics.preempted(Timeline.PRIORITY);
+                    continue;
+                }
+            }
+
+            timeline.run(current, time, time + 1);
+            remaining[current]--;
+            vruntime[current] += CFSScheduler.inverseWeight(nice[current]);
+            time++;
+        }
+    }
+
+    // Smallest vruntime, ties to the lowest id
+    private static int leftmost(List<Integer> runnable, long[] vruntime) {
+        int best = -1;
+        for (int id : runnable) {
+            if (best == -1 || vruntime[id] < vruntime[best] || (vruntime[id] == vruntime[best] && id < best)) {
+                best = id;
+            }
+        }
+        return best;
+    }
+
+    private static void complete(ProcessTable table, SchedulerMetrics metrics, int id, int time) {
+        table.completion[id] = time;
+        metrics.completed(table, id);
+    }
+
+    // Processes in (arrival, id) order
+    private static final class Arrivals {
+        private final ProcessTable table;
+        private final int[] order;
+        private int next = 0;
+
+        Arrivals(ProcessTable table) {
+            this.table = table;
+            this.order = table.arrivalOrder();
+        }
+
+        boolean hasMore() {
+            return next < order.length;
+        }
+
+        boolean due(int time) {
+            return next < order.length && table.arrival[order[next]] <= time;
+        }
+
+        int poll() {
+            return order[next++];
+        }
+    }
+}
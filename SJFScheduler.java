@@ -1,61 +1,45 @@
+import java.io.*;
 import java.util.*;
+import java.util.function.IntBinaryOperator;
 
-public class SJFScheduler {
+public class SJFScheduler implements Scheduler {
 
-    public static void schedule(List<Process> processes, int contextSwitch) {
+    final int contextSwitch;
+    private final Timeline timeline = new Timeline();
+    private SchedulerMetrics metrics;
 
-        int n = processes.size();
-        int completed = 0;
-        int time = 0;
+    public SJFScheduler(int contextSwitch) {
+        this.contextSwitch = contextSwitch;
+    }
 
-        List<String> executionOrder = new ArrayList<>();
-        Process running = null;
+    @Override
+    public String name() {
+        return "SJF";
+    }
 
-        while (completed < n) {
-            // 1. Build ready queue
-            List<Process> ready = new ArrayList<>();
-            for (Process p : processes) {
-                if (p.arrivalTime <= time && p.remainingTime > 0) {
-                    ready.add(p);
-                }
-            }
-            // 2. CPU idle
-            if (ready.isEmpty()) {
-                time++;
-                continue;
-            }
-            // 3. Pick shortest remaining time
-            ready.sort(Comparator.comparingInt((Process p) -> p.remainingTime).thenComparingInt(p -> p.arrivalTime));
-            Process next = ready.get(0);
+    @Override
+    public ScheduleResult schedule(ProcessTable table) {
+        timeline.clear();
+        schedule(table, contextSwitch, timeline, metrics);
+        return ScheduleResult.of(name(), table, timeline);
+    }
 
-            // 4. Context switch → ONLY advance time
-            if (running != next && !executionOrder.isEmpty()) {
-                time += contextSwitch;
-            }
-            // 5. Record execution order
-            if (running != next) {
-                executionOrder.add(next.name);
-            }
-            running = next;
+    @Override
+    public Scheduler withMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
 
-            // 6. Execute for 1 time unit
-            running.remainingTime--;
-            time++;
+    public static void schedule(List<Process> processes, int contextSwitch) {
 
-            // 7. Completion
-            if (running.remainingTime == 0) {
-                running.completionTime = time;
-                completed++;
-                running = null;
-            }
-        }
-        // 9. Turnaround + averages
+        ProcessTable table = ProcessTable.of(processes);
+        schedule(table, contextSwitch);
+        table.copyResultsTo(processes);
+
+        // Turnaround + averages
         double totalWT = 0, totalTAT = 0;
 
         for (Process p : processes) {
-        p.turnaroundTime = p.completionTime - p.arrivalTime;
-        p.waitingTime = p.turnaroundTime - p.burstTime;
-
         totalWT += p.waitingTime;
         totalTAT += p.turnaroundTime;
 
@@ -66,4 +50,188 @@ public class SJFScheduler {
         System.out.println("Average Turnaround Time: " + (totalTAT / processes.size()));
 
     }
+
+    public static void schedule(ProcessTable table, int contextSwitch) {
+        schedule(table, contextSwitch, null);
+    }
+
+    // Runs directly on the table's columns; results are left in table.completion
+    // and, if a timeline is given, every run and context switch is appended to it
+    public static void schedule(ProcessTable table, int contextSwitch, Timeline timeline) {
+        schedule(table, contextSwitch, timeline, null);
+    }
+
+    static void schedule(ProcessTable table, int contextSwitch, Timeline timeline, SchedulerMetrics metrics) {
+        table.reset();
+        new Run(table, contextSwitch, timeline).withMetrics(metrics).submitAll().advance(Integer.MAX_VALUE);
+    }
+
+    // Resumable SJF core, see SchedulerRun
+    static class Run extends SchedulerRun {
+        final int contextSwitch;
+        final IntBinaryOperator order;
+        final IntHeap ready;
+
+        boolean started = false;
+        int running = -1;
+        boolean dispatched = false; // running was picked (and switched to) but has not run yet
+
+        Run(ProcessTable table, int contextSwitch, Timeline timeline) {
+            super(table, timeline);
+            this.contextSwitch = contextSwitch;
+            // Shortest remaining time first; equal ones by arrival, then id
+            this.order = (a, b) -> {
+                int[] remaining = table.remaining;
+                int[] arrival = table.arrival;
+                if (remaining[a] != remaining[b])
+                    return Integer.compare(remaining[a], remaining[b]);
+                if (arrival[a] != arrival[b])
+                    return Integer.compare(arrival[a], arrival[b]);
+                return Integer.compare(a, b);
+            };
+            this.ready = new IntHeap(table.size, order);
+        }
+
+        @Override
+        void advance(int limit) {
+            int[] remaining = table.remaining;
+
+            while (true) {
+                if (!dispatched) {
+                    if (time >= limit) {
+                        return;
+                    }
+                    // 1. Admit everything that has arrived by now
+                    while (arrivals.peekTime() <= time) {
+                        ready.add(arrivals.poll());
+                    }
+                    // 2. CPU idle → jump straight to the next arrival
+                    if (running == -1 && ready.isEmpty()) {
+                        if (arrivals.peekTime() >= limit) {
+                            return;
+                        }
+                        if (metrics != null) {
+                            metrics.idle(time, arrivals.peekTime());
+                        }
+                        time = arrivals.peekTime();
+                        continue;
+                    }
+                    // 3. Pick shortest remaining time (only a new arrival can beat the running process)
+                    int next = running;
+                    if (running == -1 || (!ready.isEmpty() && order.applyAsInt(ready.peek(), running) < 0)) {
+                        next = ready.poll();
+                        if (running != -1) {
+                            ready.add(running);
+                            if (timeline != null) {
+                                timeline.end(Timeline.SJF);
+                            }
+                            if (metrics != null) {
+                                metrics.preempted(Timeline.SJF);
+                            }
+                        }
+                    }
+
+                    // 4. Context switch → ONLY advance time
+                    if (running != next && started) {
+                        if (timeline != null) {
+                            timeline.contextSwitch(next, time, time + contextSwitch);
+                        }
+                        time += contextSwitch;
+                        if (metrics != null) {
+                            metrics.contextSwitch(contextSwitch);
+                        }
+                    }
+                    if (metrics != null && running != next) {
+                        metrics.dispatch(table, next, time, ready.size());
+                    }
+                    started = true;
+                    running = next;
+                    dispatched = true;
+                }
+                if (time >= limit) {
+                    return;
+                }
+
+                // 5. Execute until completion or the next arrival (at least 1 time unit)
+                int until = time + remaining[running];
+                if (!arrivals.isEmpty()) {
+                    until = Math.min(until, Math.max(time + 1, arrivals.peekTime()));
+                }
+                until = Math.min(until, limit);
+                remaining[running] -= until - time;
+                if (timeline != null) {
+                    timeline.run(running, time, until);
+                }
+                time = until;
+                dispatched = false;
+
+                // 6. Completion, or off to an I/O burst
+                if (remaining[running] == 0) {
+                    boolean completed = burstDone(running, time);
+                    if (timeline != null) {
+                        timeline.end(completed ? Timeline.COMPLETION : Timeline.BLOCKED);
+                    }
+                    running = -1;
+                }
+            }
+        }
+
+        @Override
+        void saveState(DataOutput out) throws IOException {
+            out.writeBoolean(started);
+            out.writeInt(running);
+            out.writeBoolean(dispatched);
+            out.writeInt(ready.size());
+            for (int i = 0; i < ready.size(); i++) {
+                out.writeInt(ready.get(i));
+            }
+        }
+
+        @Override
+        void restoreState(DataInput in) throws IOException {
+            started = in.readBoolean();
+            running = in.readInt();
+            dispatched = in.readBoolean();
+            for (int count = in.readInt(); count > 0; count--) {
+                ready.add(in.readInt());
+            }
+        }
+
+        @Override
+        void resetState() {
+            started = false;
+            running = -1;
+            dispatched = false;
+            ready.clear();
+        }
+
+        @Override
+        int readyCount() {
+            return ready.size();
+        }
+
+        @Override
+        int runningProcess() {
+            return running;
+        }
+
+        // Only an arrival can take the CPU from the running process
+        @Override
+        int nextEvent() {
+            if (running == -1) {
+                return ready.isEmpty() ? Integer.MAX_VALUE : time;
+            }
+            return time + table.remaining[running];
+        }
+
+        @Override
+        int steal() {
+            return ready.isEmpty() ? -1 : ready.poll();
+        }
+
+        @Override
+        void adopt(int id) {
+            ready.add(id);
+        }
+    }
 }
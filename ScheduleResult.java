@@ -0,0 +1,147 @@
+import java.util.*;
+
+// Immutable outcome of one Scheduler.schedule() call: the execution segments, the per-process
+// metrics (indexed by process id, as in the table that was scheduled) and their averages.
+// Everything is copied out of the table and timeline, which may be reused right away.
+public final class ScheduleResult {
+    private final String scheduler;
+    private final String[] name;
+    private final int[] arrival;
+    private final int[] burst;
+    private final int[] completion;
+    private final int[] waiting;
+    private final int[] turnaround;
+    private final int[] segmentProcess;
+    private final int[] segmentStart;
+    private final int[] segmentEnd;
+    private final byte[] segmentReason;
+    private final double averageWaiting;
+    private final double averageTurnaround;
+    private final int makespan;
+
+    private ScheduleResult(String scheduler, ProcessTable table, Timeline timeline) {
+        int n = table.size;
+        this.scheduler = scheduler;
+        this.name = Arrays.copyOf(table.name, n);
+        this.arrival = Arrays.copyOf(table.arrival, n);
+        this.burst = Arrays.copyOf(table.burst, n);
+        this.completion = new int[n];
+        this.waiting = new int[n];
+        this.turnaround = new int[n];
+        long totalWaiting = 0, totalTurnaround = 0;
+        int last = 0;
+        for (int id = 0; id < n; id++) {
+            completion[id] = table.finished(id) ? table.completion[id] : 0;
+            waiting[id] = table.waiting(id);
+            turnaround[id] = table.turnaround(id);
+            totalWaiting += waiting[id];
+            totalTurnaround += turnaround[id];
+            last = Math.max(last, completion[id]);
+        }
+        this.averageWaiting = n == 0 ? 0 : (double) totalWaiting / n;
+        this.averageTurnaround = n == 0 ? 0 : (double) totalTurnaround / n;
+        this.makespan = last;
+
+        int segments = timeline == null ? 0 : timeline.size;
+        this.segmentProcess = segments == 0 ? new int[0] : Arrays.copyOf(timeline.process, segments);
+        this.segmentStart = segments == 0 ? new int[0] : Arrays.copyOf(timeline.start, segments);
+        this.segmentEnd = segments == 0 ? new int[0] : Arrays.copyOf(timeline.end, segments);
+        this.segmentReason = segments == 0 ? new byte[0] : Arrays.copyOf(timeline.reason, segments);
+    }
+
+    static ScheduleResult of(String scheduler, ProcessTable table, Timeline timeline) {
+        return new ScheduleResult(scheduler, table, timeline);
+    }
+
+    public String scheduler() {
+        return scheduler;
+    }
+
+    public int processCount() {
+        return name.length;
+    }
+
+    public String name(int id) {
+        return name[id];
+    }
+
+    public int arrival(int id) {
+        return arrival[id];
+    }
+
+    public int burst(int id) {
+        return burst[id];
+    }
+
+    // 0 for processes that never finished
+    public int completion(int id) {
+        return completion[id];
+    }
+
+    public int waiting(int id) {
+        return waiting[id];
+    }
+
+    public int turnaround(int id) {
+        return turnaround[id];
+    }
+
+    public double averageWaiting() {
+        return averageWaiting;
+    }
+
+    public double averageTurnaround() {
+        return averageTurnaround;
+    }
+
+    // Latest completion time
+    public int makespan() {
+        return makespan;
+    }
+
+    public int segmentCount() {
+        return segmentProcess.length;
+    }
+
+    // For a context switch the incoming process, -1 when switching to idle
+    public int segmentProcess(int i) {
+        return segmentProcess[i];
+    }
+
+    public int segmentStart(int i) {
+        return segmentStart[i];
+    }
+
+    public int segmentEnd(int i) {
+        return segmentEnd[i];
+    }
+
+    // One of the Timeline reason constants
+    public int segmentReason(int i) {
+        return segmentReason[i];
+    }
+
+    public boolean isContextSwitch(int i) {
+        return segmentReason[i] == Timeline.CONTEXT_SWITCH;
+    }
+
+    // Process names in the order they got the CPU, consecutive repeats collapsed, as the list
+    // API of the scheduler prints them. For Priority that includes the incoming process of every
+    // context switch: a process that ages past it during the switch runs instead, and the
+    // original program (like execute()) lists both. The other engines list only processes that
+    // ran, even when MLFQ or CFS preempt the incoming one before it does.
+    public List<String> executionOrder() {
+        boolean switchesArePicks = scheduler.equals("Priority");
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < segmentProcess.length; i++) {
+            if (segmentProcess[i] < 0 || isContextSwitch(i) && !switchesArePicks) {
+                continue;
+            }
+            String current = name[segmentProcess[i]];
+            if (order.isEmpty() || !order.get(order.size() - 1).equals(current)) {
+                order.add(current);
+            }
+        }
+        return order;
+    }
+}
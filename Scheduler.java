@@ -0,0 +1,59 @@
+import java.util.*;
+
+// Common shape of the engines. schedule() resets the table's run state, runs on its columns
+// without printing anything and returns an immutable ScheduleResult; the table keeps the raw
+// run state (remaining time, quanta, ...) until it is scheduled again.
+//
+// An instance reuses its timeline buffer between calls, so use one instance per thread.
+public interface Scheduler {
+
+    String name();
+
+    ScheduleResult schedule(ProcessTable table);
+
+    // Every following schedule() call adds its counters to metrics; null switches them off
+    Scheduler withMetrics(SchedulerMetrics metrics);
+
+    // "SJF", "RR", "Priority", "AG", "MLFQ" or "CFS" with the settings of a workload file, built
+    // through SchedulerRun.create
+    static Scheduler create(String name, int contextSwitch, int rrQuantum, int agingInterval) {
+        if (!Arrays.asList(BatchRunner.SCHEDULERS).contains(name)) {
+            throw new IllegalArgumentException("Unknown scheduler " + name);
+        }
+        return new ByName(name, contextSwitch, rrQuantum, agingInterval);
+    }
+
+    final class ByName implements Scheduler {
+        private final String name;
+        private final int contextSwitch;
+        private final int rrQuantum;
+        private final int agingInterval;
+        private final Timeline timeline = new Timeline();
+        private SchedulerMetrics metrics;
+
+        private ByName(String name, int contextSwitch, int rrQuantum, int agingInterval) {
+            this.name = name;
+            this.contextSwitch = contextSwitch;
+            this.rrQuantum = rrQuantum;
+            this.agingInterval = agingInterval;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public ScheduleResult schedule(ProcessTable table) {
+            timeline.clear();
+            SchedulerRun.schedule(name, table, contextSwitch, rrQuantum, agingInterval, timeline, metrics);
+            return ScheduleResult.of(name, table, timeline);
+        }
+
+        @Override
+        public Scheduler withMetrics(SchedulerMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+    }
+}
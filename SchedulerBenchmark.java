@@ -0,0 +1,188 @@
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+
+// Throughput / allocation benchmark for the schedulers on synthetic workloads.
+//
+//   java SchedulerBenchmark [-t 10,1000,100000,1000000] [-s SJF,RR,Priority,AG,MLFQ,CFS]
+//                           [-d uniform,exponential,pareto,bimodal] [-m objects,table,summary,batch]
+//                           [-a 11] [-b seconds] [-l label] [-o results.csv]
+//
+// Workloads come from WorkloadGenerator with a fixed seed. Every scheduler/size/burst distribution/
+// mean interarrival combination is warmed up and then run repeatedly for the time budget; results go to the console
+// and, with -o, are appended as CSV rows tagged with the label (e.g. a commit hash) so runs can be
+// compared over time.
+//
+// Arrivals are Poisson with the -a means. Bursts average about 10, so the default 11 keeps the CPU
+// slightly below full load; e.g. -a 5,11,50 adds an overloaded run, where the ready queue grows
+// without bound, and a sparse one, where it rarely holds more than a few processes.
+//
+// Mode "objects" goes through the List<Process> entry points (fresh Process copies per run),
+// mode "table" runs the engines directly on one reused ProcessTable, and mode "summary" does the
+// same but keeps only AG quantum summaries instead of full quantum histories. Mode "batch" reloads
+// the workload into one BatchScheduler per op and runs it there, as when evaluating many traces
+// back to back; the load is timed too.
+public class SchedulerBenchmark {
+
+    static final String[] SCHEDULERS = {"SJF", "RR", "Priority", "AG", "MLFQ", "CFS"};
+    static final String[] DISTRIBUTIONS = {"uniform", "exponential", "pareto", "bimodal"};
+
+    static final int CONTEXT_SWITCH = 1;
+    static final int RR_QUANTUM = 4;
+    static final int AGING_INTERVAL = 5;
+
+    public static void main(String[] args) throws IOException {
+        int[] tiers = {10, 1_000, 100_000, 1_000_000};
+        String[] schedulers = SCHEDULERS;
+        String[] distributions = DISTRIBUTIONS;
+        String[] modes = {"objects"};
+        double[] interarrivals = {11};
+        double budgetSeconds = 2;
+        String label = "local";
+        String out = null;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "-t" -> tiers = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "-s" -> schedulers = args[i + 1].split(",");
+                case "-d" -> distributions = args[i + 1].split(",");
+                case "-m" -> modes = args[i + 1].split(",");
+                case "-a" -> interarrivals = Arrays.stream(args[i + 1].split(",")).mapToDouble(Double::parseDouble).toArray();
+                case "-b" -> budgetSeconds = Double.parseDouble(args[i + 1]);
+                case "-l" -> label = args[i + 1];
+                case "-o" -> out = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        PrintStream console = System.out;
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        PrintWriter csv = out == null ? null : new PrintWriter(new FileWriter(out, true));
+
+        console.printf("%-9s %-8s %10s %-12s %9s %12s %12s %12s %14s %6s%n",
+                "Scheduler", "Mode", "Processes", "Bursts", "Interarr.", "ops/s", "ms/op", "ns/process", "alloc MB/op", "GCs");
+
+        for (double interarrival : interarrivals) {
+            for (String distribution : distributions) {
+                for (int n : tiers) {
+                    List<AGProcess> workload = workload(n, distribution, interarrival, 42);
+                    ProcessTable table = ProcessTable.of(workload);
+                    for (String mode : modes) {
+                        for (String scheduler : schedulers) {
+                            System.setOut(discard);
+                            Result r;
+                            try {
+                                measure(scheduler, mode, workload, table, budgetSeconds / 4); // warmup
+                                r = measure(scheduler, mode, workload, table, budgetSeconds);
+                            } finally {
+                                System.setOut(console);
+                            }
+
+                            double msPerOp = r.nanos / 1e6 / r.ops;
+                            console.printf("%-9s %-8s %10d %-12s %9.1f %12.2f %12.3f %12.1f %14.3f %6d%n",
+                                    scheduler, mode, n, distribution, interarrival, r.ops * 1e9 / r.nanos, msPerOp,
+                                    (double) r.nanos / r.ops / n, r.allocatedBytes / 1e6 / r.ops, r.gcCount);
+                            if (csv != null) {
+                                csv.printf(Locale.ROOT, "%s,%s,%s,%d,%s,%s,%d,%d,%d,%d%n", label, scheduler, mode, n,
+                                        distribution, interarrival, r.ops, r.nanos, r.allocatedBytes, r.gcCount);
+                                csv.flush();
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (csv != null) {
+            csv.close();
+        }
+    }
+
+    static class Result {
+        long ops;
+        long nanos;
+        long allocatedBytes;
+        long gcCount;
+    }
+
+    // Runs one scheduler until the time budget is used up. Only the scheduling itself is timed;
+    // copying the input for the objects mode is excluded.
+    static Result measure(String scheduler, String mode, List<AGProcess> workload, ProcessTable table, double budgetSeconds) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long budget = (long) (budgetSeconds * 1e9);
+        Result r = new Result();
+        BatchScheduler batch = null;
+        if (mode.equals("batch")) {
+            batch = new BatchScheduler(scheduler, CONTEXT_SWITCH, RR_QUANTUM, AGING_INTERVAL, table.size, false);
+            load(batch, table);
+            batch.run(); // grows the buffers to the workload, untimed
+        }
+        long gcBefore = gcCount();
+
+        while (r.nanos < budget || r.ops == 0) {
+            boolean objects = mode.equals("objects");
+            List<AGProcess> copy = new ArrayList<>(workload.size());
+            if (objects) {
+                for (AGProcess p : workload) {
+                    copy.add(new AGProcess(p.name, p.arrivalTime, p.burstTime, p.priority, p.initialQuantum));
+                }
+            } else if (mode.equals("table") || mode.equals("summary")) {
+                table.quantumHistory.summaryOnly = mode.equals("summary");
+            } else if (batch == null) {
+                throw new IllegalArgumentException("Unknown mode " + mode);
+            }
+            List<Process> plain = new ArrayList<>(copy);
+
+            long allocBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            if (batch != null) {
+                load(batch, table);
+                batch.run();
+            } else if (!objects) {
+                SchedulerRun.schedule(scheduler, table, CONTEXT_SWITCH, RR_QUANTUM, AGING_INTERVAL, null, null);
+            } else {
+                // the list entry points of the original programs have no counterpart in SchedulerRun
+                switch (scheduler) {
+                    case "SJF" -> SJFScheduler.schedule(plain, CONTEXT_SWITCH);
+                    case "RR" -> new RR(plain, CONTEXT_SWITCH, RR_QUANTUM).execute();
+                    case "Priority" -> new preemptivePriorityScheduling(plain, AGING_INTERVAL, CONTEXT_SWITCH).execute();
+                    case "AG" -> AGScheduler.schedule(copy, CONTEXT_SWITCH);
+                    case "MLFQ" -> {
+                        int[] quanta = MLFQScheduler.defaultQuanta(RR_QUANTUM);
+                        MLFQScheduler.schedule(plain, CONTEXT_SWITCH, quanta, MLFQScheduler.defaultBoost(quanta));
+                    }
+                    case "CFS" -> CFSScheduler.schedule(plain, CONTEXT_SWITCH, CFSScheduler.defaultLatency(RR_QUANTUM),
+                            CFSScheduler.defaultGranularity(RR_QUANTUM));
+                    default -> throw new IllegalArgumentException("Unknown scheduler " + scheduler);
+                }
+            }
+            r.nanos += System.nanoTime() - start;
+            r.allocatedBytes += threads.getCurrentThreadAllocatedBytes() - allocBefore;
+            r.ops++;
+        }
+        r.gcCount = gcCount() - gcBefore;
+        return r;
+    }
+
+    static void load(BatchScheduler batch, ProcessTable workload) {
+        ProcessTable table = batch.table;
+        table.clear();
+        for (int id = 0; id < workload.size; id++) {
+            table.add(workload.name[id], workload.arrival[id], workload.burst[id], workload.priority[id], workload.quantum[id]);
+        }
+    }
+
+    static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    static List<AGProcess> workload(int n, String distribution, double meanInterarrival, long seed) {
+        WorkloadGenerator generator = new WorkloadGenerator(n, seed);
+        generator.bursts = WorkloadGenerator.BurstDistribution.valueOf(distribution.toUpperCase());
+        generator.meanInterarrival = meanInterarrival;
+        return generator.toList();
+    }
+}
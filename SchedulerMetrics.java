@@ -0,0 +1,236 @@
+import java.io.*;
+import java.util.*;
+
+// Counters and histograms filled in by an engine run it is attached to (Scheduler.withMetrics,
+// SchedulerRun.withMetrics, OnlineScheduler.withMetrics). Engines only touch it behind a null
+// check, so a run without metrics pays nothing but that check. Not thread-safe: give every
+// concurrent run its own instance and add() them up afterwards.
+//
+// Times are in simulator time units. Exported as JSON or Prometheus text, see write().
+public final class SchedulerMetrics {
+    long runs;
+    long completions;
+    long dispatches;
+    long contextSwitches;
+    final long[] preemptions = new long[Timeline.REASONS.length]; // by Timeline reason
+    long busyTime;
+    long idleTime;
+    long switchTime;
+
+    final Histogram waiting = new Histogram();
+    final Histogram turnaround = new Histogram();
+    final Histogram response = new Histogram();   // first dispatch - arrival
+    final Histogram queueDepth = new Histogram(); // ready processes left waiting at each dispatch
+
+    // Called when a run is attached
+    void begin() {
+        runs++;
+    }
+
+    // id got the CPU at time, with depth processes still waiting in the ready queue; the first
+    // time is the one it has not run at all before
+    void dispatch(ProcessTable table, int id, int time, int depth) {
+        dispatches++;
+        queueDepth.record(depth);
+        if (table.fresh(id)) {
+            response.record(time - table.arrival[id]);
+        }
+    }
+
+    void contextSwitch(int cost) {
+        contextSwitches++;
+        switchTime += cost;
+    }
+
+    // The running process went back to the ready queue, reason is a Timeline constant
+    void preempted(int reason) {
+        preemptions[reason]++;
+    }
+
+    void idle(int from, int until) {
+        idleTime += until - from;
+    }
+
+    void completed(ProcessTable table, int id) {
+        completions++;
+        busyTime += table.burst[id];
+        waiting.record(table.waiting(id));
+        turnaround.record(table.turnaround(id));
+    }
+
+    // id moves to another core's run; completed() counts its whole burst there, so the time it
+    // already ran here is moved over to this side
+    static void migrated(ProcessTable table, int id, SchedulerMetrics from, SchedulerMetrics to) {
+        int executed = table.executed(id);
+        if (from != null) {
+            from.busyTime += executed;
+        }
+        if (to != null) {
+            to.busyTime -= executed;
+        }
+    }
+
+    void add(SchedulerMetrics other) {
+        runs += other.runs;
+        completions += other.completions;
+        dispatches += other.dispatches;
+        contextSwitches += other.contextSwitches;
+        for (int i = 0; i < preemptions.length; i++) {
+            preemptions[i] += other.preemptions[i];
+        }
+        busyTime += other.busyTime;
+        idleTime += other.idleTime;
+        switchTime += other.switchTime;
+        waiting.add(other.waiting);
+        turnaround.add(other.turnaround);
+        response.add(other.response);
+        queueDepth.add(other.queueDepth);
+    }
+
+    // For finished runs busy + idle + switch time adds up to the makespan
+    long elapsedTime() {
+        return busyTime + idleTime + switchTime;
+    }
+
+    double utilization() {
+        long elapsed = elapsedTime();
+        return elapsed == 0 ? 0 : (double) busyTime / elapsed;
+    }
+
+    // Time-averaged ready queue length, by Little's law: total waiting time / elapsed time
+    double averageQueueLength() {
+        long elapsed = elapsedTime();
+        return elapsed == 0 ? 0 : (double) waiting.sum() / elapsed;
+    }
+
+    // Writes one metric set per scheduler name: Prometheus text format for *.prom and *.txt,
+    // JSON otherwise
+    static void write(File file, Map<String, SchedulerMetrics> byScheduler) throws IOException {
+        String name = file.getName();
+        String text = name.endsWith(".prom") || name.endsWith(".txt") ? toPrometheus(byScheduler) : toJson(byScheduler);
+        try (Writer out = new BufferedWriter(new FileWriter(file))) {
+            out.write(text);
+        }
+    }
+
+    static String toJson(Map<String, SchedulerMetrics> byScheduler) {
+        StringBuilder json = new StringBuilder("{\n");
+        String separator = "";
+        for (Map.Entry<String, SchedulerMetrics> e : byScheduler.entrySet()) {
+            SchedulerMetrics m = e.getValue();
+            json.append(separator).append("  \"").append(e.getKey()).append("\": {\n");
+            json.append("    \"runs\": ").append(m.runs).append(",\n");
+            json.append("    \"completions\": ").append(m.completions).append(",\n");
+            json.append("    \"dispatches\": ").append(m.dispatches).append(",\n");
+            json.append("    \"contextSwitches\": ").append(m.contextSwitches).append(",\n");
+            json.append("    \"preemptions\": {");
+            for (int reason = Timeline.QUANTUM; reason <= Timeline.SJF; reason++) {
+                json.append(reason == Timeline.QUANTUM ? "" : ", ").append('"').append(Timeline.REASONS[reason])
+                        .append("\": ").append(m.preemptions[reason]);
+            }
+            json.append("},\n");
+            json.append("    \"busyTime\": ").append(m.busyTime).append(",\n");
+            json.append("    \"idleTime\": ").append(m.idleTime).append(",\n");
+            json.append("    \"contextSwitchTime\": ").append(m.switchTime).append(",\n");
+            json.append("    \"utilization\": ").append(String.format(Locale.ROOT, "%.6f", m.utilization())).append(",\n");
+            json.append("    \"averageQueueLength\": ").append(String.format(Locale.ROOT, "%.6f", m.averageQueueLength())).append(",\n");
+            appendJson(json, "waitingTime", m.waiting, ",\n");
+            appendJson(json, "turnaroundTime", m.turnaround, ",\n");
+            appendJson(json, "responseTime", m.response, ",\n");
+            appendJson(json, "queueDepth", m.queueDepth, "\n");
+            json.append("  }");
+            separator = ",\n";
+        }
+        return json.append("\n}\n").toString();
+    }
+
+    private static void appendJson(StringBuilder json, String name, Histogram h, String end) {
+        json.append("    \"").append(name).append("\": {");
+        json.append("\"count\": ").append(h.count());
+        json.append(", \"sum\": ").append(h.sum());
+        json.append(", \"min\": ").append(h.min());
+        json.append(", \"max\": ").append(h.max());
+        json.append(", \"mean\": ").append(String.format(Locale.ROOT, "%.6f", h.mean()));
+        json.append(", \"p50\": ").append(h.percentile(50));
+        json.append(", \"p90\": ").append(h.percentile(90));
+        json.append(", \"p99\": ").append(h.percentile(99));
+        json.append(", \"p999\": ").append(h.percentile(99.9));
+        json.append('}').append(end);
+    }
+
+    static String toPrometheus(Map<String, SchedulerMetrics> byScheduler) {
+        StringBuilder text = new StringBuilder();
+        counter(text, byScheduler, "scheduler_runs_total", "Engine runs", m -> m.runs);
+        counter(text, byScheduler, "scheduler_completions_total", "Completed processes", m -> m.completions);
+        counter(text, byScheduler, "scheduler_dispatches_total", "Times a process got the CPU", m -> m.dispatches);
+        counter(text, byScheduler, "scheduler_context_switches_total", "Context switches", m -> m.contextSwitches);
+        header(text, "scheduler_preemptions_total", "Processes sent back to the ready queue, by cause", "counter");
+        for (Map.Entry<String, SchedulerMetrics> e : byScheduler.entrySet()) {
+            for (int reason = Timeline.QUANTUM; reason <= Timeline.SJF; reason++) {
+                text.append("scheduler_preemptions_total{scheduler=\"").append(e.getKey()).append("\",cause=\"")
+                        .append(Timeline.REASONS[reason]).append("\"} ").append(e.getValue().preemptions[reason]).append('\n');
+            }
+        }
+        counter(text, byScheduler, "scheduler_busy_time_total", "Time spent running processes", m -> m.busyTime);
+        counter(text, byScheduler, "scheduler_idle_time_total", "Time the CPU had nothing to run", m -> m.idleTime);
+        counter(text, byScheduler, "scheduler_context_switch_time_total", "Time spent in context switches", m -> m.switchTime);
+        header(text, "scheduler_utilization", "Busy time / elapsed time", "gauge");
+        for (Map.Entry<String, SchedulerMetrics> e : byScheduler.entrySet()) {
+            sample(text, "scheduler_utilization", e.getKey(), String.format(Locale.ROOT, "%.6f", e.getValue().utilization()));
+        }
+        header(text, "scheduler_average_queue_length", "Time-averaged ready queue length", "gauge");
+        for (Map.Entry<String, SchedulerMetrics> e : byScheduler.entrySet()) {
+            sample(text, "scheduler_average_queue_length", e.getKey(), String.format(Locale.ROOT, "%.6f", e.getValue().averageQueueLength()));
+        }
+        histogram(text, byScheduler, "scheduler_waiting_time", "Waiting time per completed process", m -> m.waiting);
+        histogram(text, byScheduler, "scheduler_turnaround_time", "Turnaround time per completed process", m -> m.turnaround);
+        histogram(text, byScheduler, "scheduler_response_time", "Arrival to first dispatch", m -> m.response);
+        histogram(text, byScheduler, "scheduler_queue_depth", "Ready processes waiting at each dispatch", m -> m.queueDepth);
+        return text.toString();
+    }
+
+    private interface LongMetric {
+        long get(SchedulerMetrics m);
+    }
+
+    private interface HistogramMetric {
+        Histogram get(SchedulerMetrics m);
+    }
+
+    private static void header(StringBuilder text, String name, String help, String type) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, String scheduler, Object value) {
+        text.append(name).append("{scheduler=\"").append(scheduler).append("\"} ").append(value).append('\n');
+    }
+
+    private static void counter(StringBuilder text, Map<String, SchedulerMetrics> byScheduler, String name, String help, LongMetric metric) {
+        header(text, name, help, "counter");
+        for (Map.Entry<String, SchedulerMetrics> e : byScheduler.entrySet()) {
+            sample(text, name, e.getKey(), metric.get(e.getValue()));
+        }
+    }
+
+    // Only non-empty buckets are listed (with their inclusive upper bound), which keeps the
+    // cumulative counts valid
+    private static void histogram(StringBuilder text, Map<String, SchedulerMetrics> byScheduler, String name, String help, HistogramMetric metric) {
+        header(text, name, help, "histogram");
+        for (Map.Entry<String, SchedulerMetrics> e : byScheduler.entrySet()) {
+            Histogram h = metric.get(e.getValue());
+            long cumulative = 0;
+            for (int i = 0; i < Histogram.BUCKETS; i++) {
+                if (h.countAt(i) == 0) {
+                    continue;
+                }
+                cumulative += h.countAt(i);
+                text.append(name).append("_bucket{scheduler=\"").append(e.getKey()).append("\",le=\"")
+                        .append(Histogram.highestIn(i)).append("\"} ").append(cumulative).append('\n');
+            }
+            text.append(name).append("_bucket{scheduler=\"").append(e.getKey()).append("\",le=\"+Inf\"} ").append(h.count()).append('\n');
+            sample(text, name + "_sum", e.getKey(), h.sum());
+            sample(text, name + "_count", e.getKey(), h.count());
+        }
+    }
+}
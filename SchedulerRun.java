@@ -0,0 +1,209 @@
+import java.io.*;
+
+// Resumable state of one engine run over a ProcessTable, shared by the batch entry points and
+// OnlineScheduler. Processes are handed over with submit() and advance(limit) simulates
+// everything that happens before limit, on the assumption that every process arriving before
+// limit has been submitted by then. Decisions at time limit or later wait for the next call, so
+// a run advanced in many small steps ends up exactly where a single advance() would.
+//
+// A finished batch run is simply: submit every id in arrival order, advance(Integer.MAX_VALUE).
+//
+// save()/restore() write and read everything a run needs to continue, except the table, the
+// timeline and metrics, which belong to the caller (see Snapshot).
+//
+// A process with I/O bursts leaves the CPU at the end of each CPU burst but the last, exactly as
+// if it had completed (see burstDone), and comes back through arrivals once the devices have
+// served its I/O burst.
+abstract class SchedulerRun {
+    final ProcessTable table;
+    final Timeline timeline; // may be null
+    final IoDevices devices;
+    final ArrivalFeed arrivals;
+    SchedulerMetrics metrics; // null unless withMetrics() was called
+    int time = 0;
+
+    // Running totals over completed processes
+    int completed = 0;
+    long totalWaiting = 0;
+    long totalTurnaround = 0;
+
+    // Arrival order for submitAll(), kept for the next reset()
+    private int[] order = new int[0];
+    private long[] orderKeys = new long[0];
+
+    SchedulerRun(ProcessTable table, Timeline timeline) {
+        this.table = table;
+        this.timeline = timeline;
+        this.devices = new IoDevices(table);
+        this.arrivals = new ArrivalFeed(table, table.size, devices);
+    }
+
+    // Run of "SJF", "RR", "Priority", "AG", "MLFQ" or "CFS" with the settings of a workload file:
+    // MLFQ derives its levels and CFS its granularity from the RR quantum (see defaultQuanta and
+    // defaultGranularity). Every tool that picks an engine by name comes through here.
+    static SchedulerRun create(String scheduler, ProcessTable table, int contextSwitch, int rrQuantum, int agingInterval,
+                               Timeline timeline) {
+        int[] quanta = MLFQScheduler.defaultQuanta(rrQuantum);
+        return create(scheduler, table, contextSwitch, rrQuantum, agingInterval, quanta, MLFQScheduler.defaultBoost(quanta),
+                CFSScheduler.defaultLatency(rrQuantum), CFSScheduler.defaultGranularity(rrQuantum), timeline);
+    }
+
+    // Same with the MLFQ level quanta and boost interval and the CFS target latency and minimum
+    // granularity given
+    static SchedulerRun create(String scheduler, ProcessTable table, int contextSwitch, int rrQuantum, int agingInterval,
+                               int[] quanta, int boostInterval, int targetLatency, int minGranularity, Timeline timeline) {
+        return switch (scheduler) {
+            case "SJF" -> new SJFScheduler.Run(table, contextSwitch, timeline);
+            case "RR" -> new RR.Run(table, contextSwitch, rrQuantum, timeline);
+            case "Priority" -> new preemptivePriorityScheduling.Run(table, agingInterval, contextSwitch, timeline);
+            case "AG" -> new AGScheduler.Run(table, contextSwitch, timeline);
+            case "MLFQ" -> new MLFQScheduler.Run(table, contextSwitch, quanta, boostInterval, timeline);
+            case "CFS" -> new CFSScheduler.Run(table, contextSwitch, targetLatency, minGranularity, timeline);
+            default -> throw new IllegalArgumentException("Unknown scheduler " + scheduler);
+        };
+    }
+
+    // Resets the table and runs it to the end on the named engine, as create
+    static void schedule(String scheduler, ProcessTable table, int contextSwitch, int rrQuantum, int agingInterval,
+                         Timeline timeline, SchedulerMetrics metrics) {
+        table.reset();
+        create(scheduler, table, contextSwitch, rrQuantum, agingInterval, timeline).withMetrics(metrics)
+                .submitAll().advance(Integer.MAX_VALUE);
+    }
+
+    void submit(int id) {
+        submitted(id);
+        arrivals.add(id);
+    }
+
+    // Submits the whole table (after a reset)
+    SchedulerRun submitAll() {
+        for (int id = 0; id < table.size; id++) {
+            submitted(id);
+        }
+        if (order.length < table.size) {
+            order = new int[table.size];
+            orderKeys = new long[table.size];
+        }
+        table.arrivalOrder(order, orderKeys);
+        arrivals.addSorted(order, table.size);
+        return this;
+    }
+
+    // Back to a fresh run over whatever the table holds now, keeping every buffer. With the
+    // table refilled and reset, reset() + submitAll() + advance() runs the next workload of a
+    // batch without allocating once the buffers have grown to its size (see BatchScheduler).
+    final void reset() {
+        time = 0;
+        completed = 0;
+        totalWaiting = 0;
+        totalTurnaround = 0;
+        arrivals.clear();
+        devices.clear();
+        resetState();
+    }
+
+    SchedulerRun withMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.begin();
+        }
+        return this;
+    }
+
+    // Called for every process handed to the run, before it is admitted
+    void submitted(int id) {
+    }
+
+    abstract void advance(int limit);
+
+    final void save(DataOutput out) throws IOException {
+        out.writeInt(time);
+        out.writeInt(completed);
+        out.writeLong(totalWaiting);
+        out.writeLong(totalTurnaround);
+        arrivals.save(out);
+        devices.save(out);
+        saveState(out);
+    }
+
+    // Into a run freshly created over the restored table
+    final void restore(DataInput in) throws IOException {
+        time = in.readInt();
+        completed = in.readInt();
+        totalWaiting = in.readLong();
+        totalTurnaround = in.readLong();
+        arrivals.restore(in);
+        devices.restore(in);
+        restoreState(in);
+    }
+
+    // The engine's own state: ready queue, running process, and so on
+    abstract void saveState(DataOutput out) throws IOException;
+
+    abstract void restoreState(DataInput in) throws IOException;
+
+    // Empties the engine's own state without giving up its buffers
+    abstract void resetState();
+
+    // Used by MultiCoreScheduler to move work between cores:
+
+    // Processes in the ready queue, not counting the one holding the CPU
+    abstract int readyCount();
+
+    // Process holding (or being switched onto) the CPU, -1 if none
+    abstract int runningProcess();
+
+    // Removes the ready process this run would pick next and returns it, -1 if there is none
+    abstract int steal();
+
+    // Queues a process stolen from another run right away. Unlike submit() it is not treated as
+    // an arrival: it keeps its remaining time, priority, quantum (and history) and MLFQ level.
+    abstract void adopt(int id);
+
+    // Earliest time at which this run may end a burst, preempt or run out of work, as long as
+    // nothing new is admitted: its current time while a decision is due, Integer.MAX_VALUE when
+    // there is nothing to run. A lower bound is fine, the cores then just meet more often.
+    abstract int nextEvent();
+
+    // Nothing running, ready or arriving up to t
+    boolean idleAt(int t) {
+        return time <= t && runningProcess() == -1 && readyCount() == 0 && arrivals.peekTime() > t;
+    }
+
+    // Moves an idle run forward to t
+    void idleUntil(int t) {
+        if (time < t) {
+            if (metrics != null) {
+                metrics.idle(time, t);
+            }
+            time = t;
+        }
+    }
+
+    // Processes on this run that have not completed yet
+    int load() {
+        return readyCount() + (runningProcess() == -1 ? 0 : 1) + arrivals.size();
+    }
+
+    // id has used up its current CPU burst at 'at'. After the last one it completes and this
+    // returns true; otherwise it blocks on its next I/O burst and false is returned.
+    boolean burstDone(int id, int at) {
+        if (table.phase[id] == table.ioCount[id]) {
+            complete(id, at);
+            return true;
+        }
+        devices.request(id, at);
+        return false;
+    }
+
+    void complete(int id, int at) {
+        table.completion[id] = at;
+        completed++;
+        totalWaiting += table.waiting(id);
+        totalTurnaround += table.turnaround(id);
+        if (metrics != null) {
+            metrics.completed(table, id);
+        }
+    }
+}
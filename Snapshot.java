@@ -0,0 +1,94 @@
+import java.io.*;
+import java.util.zip.*;
+
+// Checkpoint files for OnlineScheduler: a long simulation can be saved at any point and resumed
+// later, or several what-if branches can be continued from one saved mid-point without
+// simulating the prefix again. Restoring and advancing gives exactly what advancing the saved
+// scheduler would have.
+//
+// Layout: int magic, int version, then the gzip-compressed OnlineScheduler.save() stream
+// (settings, process table with run state and AG quantum history, undrained timeline segments,
+// engine state). Version 2 added the I/O bursts and device state.
+//
+//   java Snapshot save <workload.json | workload.trace> <scheduler> <time> <out.snap>
+//   java Snapshot resume <in.snap> [-t time] [-o out.snap]
+//
+// save runs the workload up to time and writes the snapshot; resume continues a snapshot up to
+// time (default: until every process has completed), prints a summary and, with -o, saves the
+// new state.
+public class Snapshot {
+
+    static final int MAGIC = 0x43505553; // "CPUS"
+    static final int VERSION = 2;
+
+    static void write(File file, OnlineScheduler online) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            GZIPOutputStream zip = new GZIPOutputStream(out, 1 << 16);
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(zip, 1 << 16));
+            online.save(data);
+            data.flush();
+            zip.finish();
+        }
+    }
+
+    static OnlineScheduler read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a snapshot file (or unsupported version): " + file);
+            }
+            return OnlineScheduler.restore(new DataInputStream(new BufferedInputStream(new GZIPInputStream(in, 1 << 16), 1 << 16)));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 5 && args[0].equals("save")) {
+            BatchRunner.Workload workload = BatchRunner.Workload.load(new File(args[1]));
+            String missing = workload.missingSetting(args[2]);
+            if (missing != null) {
+                throw new IllegalArgumentException("No " + missing + " in " + args[1]);
+            }
+            OnlineScheduler online = new OnlineScheduler(args[2], workload.contextSwitch, workload.rrQuantum, workload.agingInterval);
+            ProcessTable table = workload.table;
+            online.table.ioDevices = table.ioDevices;
+            online.table.ioPolicy = table.ioPolicy;
+            for (int id : table.arrivalOrder()) {
+                online.submit(table.name[id], table.arrival[id], table.bursts(id), table.priority[id], table.quantum[id]);
+            }
+            online.advanceTo(Integer.parseInt(args[3]));
+            write(new File(args[4]), online);
+            printSummary(online);
+        } else if (args.length >= 2 && args[0].equals("resume")) {
+            OnlineScheduler online = read(new File(args[1]));
+            Integer until = null;
+            String out = null;
+            for (int i = 2; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-t" -> until = Integer.parseInt(args[++i]);
+                    case "-o" -> out = args[++i];
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (until == null) {
+                online.finish();
+            } else {
+                online.advanceTo(until);
+            }
+            if (out != null) {
+                write(new File(out), online);
+            }
+            printSummary(online);
+        } else {
+            System.out.println("Usage: java Snapshot save <workload.json | workload.trace> <scheduler> <time> <out.snap>");
+            System.out.println("       java Snapshot resume <in.snap> [-t time] [-o out.snap]");
+        }
+    }
+
+    private static void printSummary(OnlineScheduler online) {
+        System.out.printf("%s at time %d: %d of %d processes completed%n", online.scheduler, online.now(),
+                online.completed(), online.submitted());
+        System.out.println("Average Waiting Time: " + online.averageWaiting());
+        System.out.println("Average Turnaround Time: " + online.averageTurnaround());
+    }
+}
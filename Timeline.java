@@ -0,0 +1,159 @@
+import java.io.*;
+import java.util.*;
+
+// Execution timeline as run-length segments: process id, [start, end) and the reason the
+// segment ended, in time order. run() extends the open segment while the same process keeps
+// the CPU without a gap, so a timeline grows with the number of switches rather than with the
+// simulated time. Gaps between segments are idle CPU time.
+class Timeline {
+    // Why a segment ended
+    static final int COMPLETION = 0;
+    static final int QUANTUM = 1;        // quantum or RR slice used up
+    static final int PRIORITY = 2;       // preempted by a higher-priority process
+    static final int SJF = 3;            // preempted by a shorter job
+    static final int CONTEXT_SWITCH = 4; // the segment is itself a context switch
+    static final int OPEN = 5;           // still running when the engine stopped
+    static final int BLOCKED = 6;        // went off to an I/O burst
+    static final String[] REASONS = {"completion", "quantum", "priority", "sjf", "context switch", "open", "blocked"};
+
+    int size;
+    int[] process; // for context switches the incoming process, or -1 when switching to idle
+    int[] start;
+    int[] end;
+    byte[] reason;
+    private boolean open;
+    private TimelineWriter writer; // see streamTo()
+    private int lane;
+
+    Timeline() {
+        this(16);
+    }
+
+    Timeline(int capacity) {
+        capacity = Math.max(1, capacity);
+        process = new int[capacity];
+        start = new int[capacity];
+        end = new int[capacity];
+        reason = new byte[capacity];
+    }
+
+    // id ran from 'from' to 'to'
+    void run(int id, int from, int to) {
+        if (open && process[size - 1] == id && end[size - 1] == from) {
+            end[size - 1] = to;
+            return;
+        }
+        append(id, from, to, OPEN);
+        open = true;
+    }
+
+    // Process of the open segment, -1 if none
+    int running() {
+        return open ? process[size - 1] : -1;
+    }
+
+    // Closes the open segment (if any); the next run() starts a new one even for the same process
+    void end(int why) {
+        if (open) {
+            reason[size - 1] = (byte) why;
+            open = false;
+        }
+    }
+
+    // Context switch to id (-1 for idle) over [from, until); a free switch records nothing
+    void contextSwitch(int id, int from, int until) {
+        end(OPEN);
+        if (until > from) {
+            append(id, from, until, CONTEXT_SWITCH);
+        }
+    }
+
+    boolean isContextSwitch(int i) {
+        return reason[i] == CONTEXT_SWITCH;
+    }
+
+    // From now on, whenever the buffer is full its closed segments are written to writer (as
+    // lane) instead of the buffer growing, so memory stays at the initial capacity. Call flush()
+    // when the run is over for the rest.
+    void streamTo(TimelineWriter writer, int lane) {
+        this.writer = writer;
+        this.lane = lane;
+    }
+
+    private void append(int id, int from, int to, int why) {
+        if (size == process.length && writer != null) {
+            flush();
+        }
+        if (size == process.length) {
+            process = Arrays.copyOf(process, size * 2);
+            start = Arrays.copyOf(start, size * 2);
+            end = Arrays.copyOf(end, size * 2);
+            reason = Arrays.copyOf(reason, size * 2);
+        }
+        process[size] = id;
+        start[size] = from;
+        end[size] = to;
+        reason[size] = (byte) why;
+        size++;
+    }
+
+    // Moves every closed segment to the end of out and keeps only the open one (if any), so a
+    // long running simulation can be consumed in pieces. Returns the number of segments moved.
+    int drainTo(Timeline out) {
+        int closed = open ? size - 1 : size;
+        for (int i = 0; i < closed; i++) {
+            out.append(process[i], start[i], end[i], reason[i]);
+        }
+        keepOnlyOpen(closed);
+        return closed;
+    }
+
+    // Writes every closed segment to the streamTo() writer and keeps only the open one
+    void flush() {
+        int closed = open ? size - 1 : size;
+        try {
+            for (int i = 0; i < closed; i++) {
+                writer.segment(lane, process[i], start[i], end[i], reason[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        keepOnlyOpen(closed);
+    }
+
+    private void keepOnlyOpen(int closed) {
+        if (open) {
+            process[0] = process[closed];
+            start[0] = start[closed];
+            end[0] = end[closed];
+            reason[0] = reason[closed];
+        }
+        size -= closed;
+    }
+
+    void clear() {
+        size = 0;
+        open = false;
+    }
+
+    void save(DataOutput out) throws IOException {
+        out.writeBoolean(open);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(process[i]);
+            out.writeInt(start[i]);
+            out.writeInt(end[i]);
+            out.writeByte(reason[i]);
+        }
+    }
+
+    // Replaces the contents
+    void restore(DataInput in) throws IOException {
+        clear();
+        boolean wasOpen = in.readBoolean();
+        for (int count = in.readInt(); count > 0; count--) {
+            append(in.readInt(), in.readInt(), in.readInt(), in.readByte());
+        }
+        open = wasOpen;
+    }
+}
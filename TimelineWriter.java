@@ -0,0 +1,408 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+// Streams execution segments to a file as they are produced, so a run of any length can be
+// visualized without holding its timeline. A Timeline set up with streamTo() hands its closed
+// segments over whenever its buffer fills (see Timeline.flush); segments go through one direct
+// buffer into a FileChannel and nothing is allocated per segment. The format follows the file
+// extension:
+//   .csv   core,process,start,end,reason - one row per segment; for context switches process is
+//          the incoming one (empty when switching to idle)
+//   .json  Chrome trace events (Perfetto, about:tracing): one complete event per segment, one
+//          thread per core, 1 time unit shown as 1 us
+//   .bin   compact binary, see Binary
+//
+//   java TimelineWriter <workload.json | workload.trace> <scheduler> <out.csv | out.json | out.bin>
+//                       [-n cores] [-b affinity|global|stealing] [-i interval]
+//   java TimelineWriter convert <in.bin> <out.csv | out.json>
+//
+// Lanes are cores; a single-core run writes everything to lane 0.
+abstract class TimelineWriter implements Closeable {
+
+    static final byte[][] REASONS = new byte[Timeline.REASONS.length][];
+
+    static {
+        for (int i = 0; i < REASONS.length; i++) {
+            REASONS[i] = ascii(Timeline.REASONS[i]);
+        }
+    }
+
+    private final FileChannel channel;
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    final IntFunction<String> names;
+    private final byte[] digits = new byte[20];
+
+    // names maps process ids to names, looked up the first time an id is written
+    TimelineWriter(Path file, IntFunction<String> names) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.names = names;
+    }
+
+    static TimelineWriter open(Path file, IntFunction<String> names) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".csv")) {
+            return new Csv(file, names);
+        } else if (name.endsWith(".json")) {
+            return new ChromeTrace(file, names);
+        } else if (name.endsWith(".bin")) {
+            return new Binary(file, names);
+        }
+        throw new IllegalArgumentException("Unknown timeline format (need .csv, .json or .bin): " + file);
+    }
+
+    // One segment of lane; process is -1 for a context switch to idle, reason a Timeline constant
+    abstract void segment(int lane, int process, int start, int end, int reason) throws IOException;
+
+    // Written before the file is closed
+    void trailer() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            trailer();
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    void put(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.capacity()) {
+            drain();
+            channel.write(ByteBuffer.wrap(bytes));
+            return;
+        }
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    // Decimal digits without going through a String; needs 20 bytes of room
+    void putDecimal(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (n > 0) {
+            buffer.put(digits[--n]);
+        }
+    }
+
+    static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Encoded names by process id, filled on first use
+    static final class NameCache {
+        private byte[][] encoded = new byte[16][];
+
+        byte[] get(int id, IntFunction<String> names, Function<String, String> escape) {
+            if (id >= encoded.length) {
+                encoded = Arrays.copyOf(encoded, Math.max(id + 1, encoded.length * 2));
+            }
+            if (encoded[id] == null) {
+                String name = names.apply(id);
+                encoded[id] = escape.apply(name == null ? "" : name).getBytes(StandardCharsets.UTF_8);
+            }
+            return encoded[id];
+        }
+    }
+
+    static final class Csv extends TimelineWriter {
+        private static final byte[] IDLE = {};
+
+        private final NameCache cache = new NameCache();
+
+        Csv(Path file, IntFunction<String> names) throws IOException {
+            super(file, names);
+            put(ascii("core,process,start,end,reason\n"));
+        }
+
+        @Override
+        void segment(int lane, int process, int start, int end, int reason) throws IOException {
+            byte[] name = process < 0 ? IDLE : cache.get(process, names, Csv::escape);
+            ensure(name.length + 100);
+            putDecimal(lane);
+            buffer.put((byte) ',');
+            buffer.put(name);
+            buffer.put((byte) ',');
+            putDecimal(start);
+            buffer.put((byte) ',');
+            putDecimal(end);
+            buffer.put((byte) ',');
+            buffer.put(REASONS[reason]);
+            buffer.put((byte) '\n');
+        }
+
+        private static String escape(String text) {
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    static final class ChromeTrace extends TimelineWriter {
+        private static final byte[] THREAD_NAME = ascii("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":0,\"tid\":");
+        private static final byte[] CORE = ascii(",\"args\":{\"name\":\"core ");
+        private static final byte[] RUN_NAME = ascii("{\"name\":\"");
+        private static final byte[] RUN = ascii("\",\"cat\":\"run\",\"ph\":\"X\",\"pid\":0,\"tid\":");
+        private static final byte[] SWITCH = ascii("{\"name\":\"context switch\",\"cat\":\"switch\",\"ph\":\"X\",\"pid\":0,\"tid\":");
+        private static final byte[] TS = ascii(",\"ts\":");
+        private static final byte[] DUR = ascii(",\"dur\":");
+        private static final byte[] TO = ascii(",\"args\":{\"to\":\"");
+        private static final byte[] END = ascii(",\"args\":{\"end\":\"");
+        private static final byte[] CLOSE = ascii("\"}}");
+        private static final byte[] IDLE = ascii("idle");
+
+        private final NameCache cache = new NameCache();
+        private boolean[] named = new boolean[4];
+        private boolean first = true;
+
+        ChromeTrace(Path file, IntFunction<String> names) throws IOException {
+            super(file, names);
+            put(ascii("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["));
+        }
+
+        @Override
+        void segment(int lane, int process, int start, int end, int reason) throws IOException {
+            if (lane >= named.length) {
+                named = Arrays.copyOf(named, Math.max(lane + 1, named.length * 2));
+            }
+            if (!named[lane]) {
+                named[lane] = true;
+                separator();
+                ensure(100);
+                buffer.put(THREAD_NAME);
+                putDecimal(lane);
+                buffer.put(CORE);
+                putDecimal(lane);
+                buffer.put(CLOSE);
+            }
+
+            byte[] name = process < 0 ? IDLE : cache.get(process, names, ChromeTrace::escape);
+            separator();
+            ensure(2 * name.length + 200);
+            if (reason == Timeline.CONTEXT_SWITCH) {
+                buffer.put(SWITCH);
+            } else {
+                buffer.put(RUN_NAME);
+                buffer.put(name);
+                buffer.put(RUN);
+            }
+            putDecimal(lane);
+            buffer.put(TS);
+            putDecimal(start);
+            buffer.put(DUR);
+            putDecimal((long) end - start);
+            if (reason == Timeline.CONTEXT_SWITCH) {
+                buffer.put(TO);
+                buffer.put(name);
+            } else {
+                buffer.put(END);
+                buffer.put(REASONS[reason]);
+            }
+            buffer.put(CLOSE);
+        }
+
+        private void separator() throws IOException {
+            ensure(2);
+            if (!first) {
+                buffer.put((byte) ',');
+            }
+            buffer.put((byte) '\n');
+            first = false;
+        }
+
+        @Override
+        void trailer() throws IOException {
+            put(ascii("\n]}\n"));
+        }
+
+        private static String escape(String text) {
+            StringBuilder sb = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    sb.append('\\').append(c);
+                } else if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    // Layout: int magic, byte version, then records, all integers as unsigned LEB128 varints:
+    //   NAME (0xFF), id, byte length, UTF-8 bytes   - before the first segment of that process
+    //   reason (0..6), lane, process + 1, zigzag(start - end of the lane's previous segment), end - start
+    // A typical segment takes 4 to 6 bytes.
+    static final class Binary extends TimelineWriter {
+        static final int MAGIC = 0x43505547; // "CPUG"
+        static final int VERSION = 1;
+        static final int NAME = 0xFF;
+
+        private final NameCache cache = new NameCache();
+        private boolean[] defined = new boolean[16];
+        private int[] laneEnd = new int[4];
+
+        Binary(Path file, IntFunction<String> names) throws IOException {
+            super(file, names);
+            buffer.putInt(MAGIC);
+            buffer.put((byte) VERSION);
+        }
+
+        @Override
+        void segment(int lane, int process, int start, int end, int reason) throws IOException {
+            if (process >= 0) {
+                if (process >= defined.length) {
+                    defined = Arrays.copyOf(defined, Math.max(process + 1, defined.length * 2));
+                }
+                if (!defined[process]) {
+                    defined[process] = true;
+                    byte[] name = cache.get(process, names, text -> text);
+                    ensure(11);
+                    buffer.put((byte) NAME);
+                    putVarint(process);
+                    putVarint(name.length);
+                    put(name);
+                }
+            }
+            if (lane >= laneEnd.length) {
+                laneEnd = Arrays.copyOf(laneEnd, Math.max(lane + 1, laneEnd.length * 2));
+            }
+            long gap = (long) start - laneEnd[lane];
+            ensure(1 + 5 + 5 + 10 + 5);
+            buffer.put((byte) reason);
+            putVarint(lane);
+            putVarint(process + 1);
+            putVarint((gap << 1) ^ (gap >> 63));
+            putVarint((long) end - start);
+            laneEnd[lane] = end;
+        }
+
+        private void putVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        // Replays a binary timeline into another writer
+        static void convert(Path file, TimelineWriter out, Map<Integer, String> names) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (in.remaining() < 5 || in.getInt() != MAGIC || in.get() != VERSION) {
+                    throw new IOException("Not a binary timeline (or unsupported version): " + file);
+                }
+                int[] laneEnd = new int[4];
+                while (in.hasRemaining()) {
+                    int tag = in.get() & 0xFF;
+                    if (tag == NAME) {
+                        int id = (int) getVarint(in);
+                        byte[] name = new byte[(int) getVarint(in)];
+                        in.get(name);
+                        names.put(id, new String(name, StandardCharsets.UTF_8));
+                        continue;
+                    }
+                    int lane = (int) getVarint(in);
+                    int process = (int) getVarint(in) - 1;
+                    long zigzag = getVarint(in);
+                    if (lane >= laneEnd.length) {
+                        laneEnd = Arrays.copyOf(laneEnd, Math.max(lane + 1, laneEnd.length * 2));
+                    }
+                    int start = (int) (laneEnd[lane] + ((zigzag >>> 1) ^ -(zigzag & 1)));
+                    int end = (int) (start + getVarint(in));
+                    laneEnd[lane] = end;
+                    out.segment(lane, process, start, end, tag);
+                }
+            }
+        }
+
+        private static long getVarint(ByteBuffer in) {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("convert")) {
+            Map<Integer, String> names = new HashMap<>();
+            try (TimelineWriter out = open(Paths.get(args[2]), names::get)) {
+                Binary.convert(Paths.get(args[1]), out, names);
+            }
+            return;
+        }
+        if (args.length < 3) {
+            System.out.println("Usage: java TimelineWriter <workload.json | workload.trace> <scheduler> <out.csv | out.json | out.bin> "
+                    + "[-n cores] [-b affinity|global|stealing] [-i interval]");
+            System.out.println("       java TimelineWriter convert <in.bin> <out.csv | out.json>");
+            return;
+        }
+        File file = new File(args[0]);
+        String scheduler = args[1];
+        int cores = 1;
+        String balancing = "affinity";
+        int interval = 0;
+        for (int i = 3; i < args.length; i++) {
+            switch (args[i]) {
+                case "-n" -> cores = Integer.parseInt(args[++i]);
+                case "-b" -> balancing = args[++i];
+                case "-i" -> interval = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        BatchRunner.Workload workload = BatchRunner.Workload.load(file);
+        String missing = workload.missingSetting(scheduler);
+        if (missing != null) {
+            throw new IllegalArgumentException("No " + missing + " in " + file);
+        }
+        ProcessTable table = workload.table;
+        MultiCoreScheduler multi = new MultiCoreScheduler(scheduler, cores, balancing, interval,
+                workload.contextSwitch, workload.rrQuantum, workload.agingInterval);
+        long started = System.nanoTime();
+        ScheduleResult result;
+        try (TimelineWriter out = open(Paths.get(args[2]), id -> table.name[id])) {
+            multi.writer = out;
+            result = multi.schedule(table);
+        }
+        System.out.printf("%s: %d processes, makespan %d, written to %s in %.1f ms%n", scheduler, table.size,
+                result.makespan(), args[2], (System.nanoTime() - started) / 1e6);
+    }
+}
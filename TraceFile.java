@@ -0,0 +1,214 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Compact columnar binary form of a workload, read back through a memory-mapped buffer so
+// repeated runs over the same trace start without any parsing.
+//
+// Layout (big-endian):
+//   int magic, int version, int count, int nameCount, int contextSwitch, int rrQuantum, int agingInterval
+//   int[count] arrival, int[count] burst, int[count] priority, int[count] quantum, int[count] nameIndex
+//   int[nameCount + 1] name offsets into the blob, byte[] UTF-8 name blob
+//
+// Names are interned, so a trace that reuses names stores each one once.
+//
+//   java TraceFile workload.json workload.trace    (convert from the OtherSchedulers/ and AG/ schema)
+public class TraceFile {
+
+    static final int MAGIC = 0x43505554; // "CPUT"
+    static final int VERSION = 1;
+    static final int HEADER_INTS = 7;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final IntBuffer arrival;
+    private final IntBuffer burst;
+    private final IntBuffer priority;
+    private final IntBuffer quantum;
+    private final IntBuffer nameIndex;
+    private final IntBuffer nameOffsets;
+    private final int blobStart;
+    private final String[] names;
+
+    final int contextSwitch;
+    final int rrQuantum;
+    final int agingInterval;
+
+    private TraceFile(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a trace file (or unsupported version)");
+        }
+        count = buffer.getInt(8);
+        int nameCount = buffer.getInt(12);
+        contextSwitch = buffer.getInt(16);
+        rrQuantum = buffer.getInt(20);
+        agingInterval = buffer.getInt(24);
+
+        int offset = HEADER_INTS * 4;
+        arrival = column(offset, count);
+        burst = column(offset += count * 4, count);
+        priority = column(offset += count * 4, count);
+        quantum = column(offset += count * 4, count);
+        nameIndex = column(offset += count * 4, count);
+        nameOffsets = column(offset += count * 4, nameCount + 1);
+        blobStart = offset + (nameCount + 1) * 4;
+        names = new String[nameCount];
+    }
+
+    private IntBuffer column(int offset, int length) {
+        return buffer.slice(offset, length * 4).asIntBuffer();
+    }
+
+    public static TraceFile open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new TraceFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    int arrival(int i) {
+        return arrival.get(i);
+    }
+
+    int burst(int i) {
+        return burst.get(i);
+    }
+
+    int priority(int i) {
+        return priority.get(i);
+    }
+
+    int quantum(int i) {
+        return quantum.get(i);
+    }
+
+    String name(int i) {
+        int index = nameIndex.get(i);
+        String name = names[index];
+        if (name == null) {
+            int start = nameOffsets.get(index);
+            byte[] bytes = new byte[nameOffsets.get(index + 1) - start];
+            buffer.get(blobStart + start, bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+            names[index] = name;
+        }
+        return name;
+    }
+
+    public List<Process> toProcesses() {
+        List<Process> processes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            processes.add(new Process(name(i), arrival(i), burst(i), priority(i)));
+        }
+        return processes;
+    }
+
+    public List<AGProcess> toAGProcesses() {
+        List<AGProcess> processes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            processes.add(new AGProcess(name(i), arrival(i), burst(i), priority(i), quantum(i)));
+        }
+        return processes;
+    }
+
+    // Bulk-copies the columns into a table the engines can run on
+    public ProcessTable toTable() {
+        ProcessTable table = new ProcessTable(count);
+        table.size = count;
+        arrival.get(0, table.arrival, 0, count);
+        burst.get(0, table.burst, 0, count);
+        priority.get(0, table.priority, 0, count);
+        quantum.get(0, table.quantum, 0, count);
+        for (int i = 0; i < count; i++) {
+            table.name[i] = name(i);
+        }
+        table.reset();
+        return table;
+    }
+
+    // Traces only hold single-burst processes
+    public static void write(File file, ProcessTable table, int contextSwitch, int rrQuantum, int agingInterval) throws IOException {
+        if (table.hasIo()) {
+            throw new IllegalArgumentException("Trace files cannot hold I/O bursts, " + file.getName() + " not written");
+        }
+        int count = table.size;
+        Map<String, Integer> interned = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        int[] nameIndex = new int[count];
+        for (int i = 0; i < count; i++) {
+            nameIndex[i] = interned.computeIfAbsent(table.name[i] == null ? "" : table.name[i], n -> {
+                names.add(n);
+                return names.size() - 1;
+            });
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer out = ByteBuffer.allocateDirect(1 << 16);
+            int[] header = {MAGIC, VERSION, count, names.size(), contextSwitch, rrQuantum, agingInterval};
+            put(channel, out, header, header.length);
+            put(channel, out, table.arrival, count);
+            put(channel, out, table.burst, count);
+            put(channel, out, table.priority, count);
+            put(channel, out, table.quantum, count);
+            put(channel, out, nameIndex, count);
+
+            List<byte[]> encoded = new ArrayList<>(names.size());
+            int[] offsets = new int[names.size() + 1];
+            for (int i = 0; i < names.size(); i++) {
+                byte[] bytes = names.get(i).getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                offsets[i + 1] = offsets[i] + bytes.length;
+            }
+            put(channel, out, offsets, offsets.length);
+            for (byte[] bytes : encoded) {
+                if (out.remaining() < bytes.length) {
+                    drain(channel, out);
+                }
+                if (bytes.length > out.capacity()) {
+                    channel.write(ByteBuffer.wrap(bytes));
+                } else {
+                    out.put(bytes);
+                }
+            }
+            drain(channel, out);
+        }
+    }
+
+    private static void put(FileChannel channel, ByteBuffer out, int[] values, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            if (out.remaining() < 4) {
+                drain(channel, out);
+            }
+            out.putInt(values[i]);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: java TraceFile <workload.json> <workload.trace>");
+            return;
+        }
+        WorkloadReader reader = new WorkloadReader();
+        ProcessTable table = new ProcessTable();
+        reader.read(new File(args[0]), table);
+        write(new File(args[1]), table, reader.contextSwitch, reader.rrQuantum, reader.agingInterval);
+        System.out.println("Wrote " + table.size + " processes to " + args[1]);
+    }
+}
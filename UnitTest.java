@@ -539,16 +539,13 @@ public class UnitTest {
             System.out.println("Testing: " + filename);
             System.out.println("-".repeat(80));
 
-            // Read JSON file
-            String content = new String(java.nio.file.Files.readAllBytes(
-                    java.nio.file.Paths.get(filename)));
+            // Stream the JSON file
+            WorkloadReader reader = new WorkloadReader();
+            List<Process> processes = reader.readProcesses(new java.io.File(filename));
 
-            // Parse JSON manually (simple parsing)
-            int contextSwitch = extractInt(content, "contextSwitch");
-            int rrQuantum = extractInt(content, "rrQuantum");
-            int agingInterval = extractInt(content, "agingInterval");
-
-            List<Process> processes = parseProcesses(content);
+            int contextSwitch = reader.contextSwitch;
+            int rrQuantum = reader.rrQuantum;
+            int agingInterval = reader.agingInterval;
 
             // Test SJF Scheduler
             System.out.println("\n>>> SJF Scheduler:");
@@ -581,12 +578,8 @@ public class UnitTest {
             System.out.println("Testing: " + filename);
             System.out.println("-".repeat(80));
 
-            // Read JSON file
-            String content = new String(java.nio.file.Files.readAllBytes(
-                    java.nio.file.Paths.get(filename)));
-
             int contextSwitch = 1; // Default context switch for AG
-            List<AGProcess> processes = parseAGProcesses(content);
+            List<AGProcess> processes = new WorkloadReader().readAGProcesses(new java.io.File(filename));
 
             System.out.println("\n>>> AG Scheduler:");
             AGScheduler.execute(processes, contextSwitch);
@@ -596,91 +589,4 @@ public class UnitTest {
             e.printStackTrace();
         }
     }
-
-    private static List<Process> parseProcesses(String json) {
-        List<Process> processes = new ArrayList<>();
-
-        // Find processes array
-        int processesStart = json.indexOf("\"processes\"");
-        int arrayStart = json.indexOf("[", processesStart);
-        int arrayEnd = findMatchingBracket(json, arrayStart);
-        String processesJson = json.substring(arrayStart + 1, arrayEnd);
-
-        // Split by objects
-        String[] processObjs = processesJson.split("\\},\\s*\\{");
-
-        for (String obj : processObjs) {
-            obj = obj.replaceAll("[\\{\\}]", "");
-
-            String name = extractValue(obj, "name");
-            int arrival = Integer.parseInt(extractValue(obj, "arrival"));
-            int burst = Integer.parseInt(extractValue(obj, "burst"));
-            int priority = Integer.parseInt(extractValue(obj, "priority"));
-
-            processes.add(new Process(name, arrival, burst, priority));
-        }
-
-        return processes;
-    }
-
-    private static List<AGProcess> parseAGProcesses(String json) {
-        List<AGProcess> processes = new ArrayList<>();
-
-        // Find processes array
-        int processesStart = json.indexOf("\"processes\"");
-        int arrayStart = json.indexOf("[", processesStart);
-        int arrayEnd = findMatchingBracket(json, arrayStart);
-        String processesJson = json.substring(arrayStart + 1, arrayEnd);
-
-        // Split by objects
-        String[] processObjs = processesJson.split("\\},\\s*\\{");
-
-        for (String obj : processObjs) {
-            obj = obj.replaceAll("[\\{\\}]", "");
-
-            String name = extractValue(obj, "name");
-            int arrival = Integer.parseInt(extractValue(obj, "arrival"));
-            int burst = Integer.parseInt(extractValue(obj, "burst"));
-            int priority = Integer.parseInt(extractValue(obj, "priority"));
-            int quantum = Integer.parseInt(extractValue(obj, "quantum"));
-
-            processes.add(new AGProcess(name, arrival, burst, priority, quantum));
-        }
-
-        return processes;
-    }
-
-    private static String extractValue(String json, String key) {
-        int keyPos = json.indexOf("\"" + key + "\"");
-        if (keyPos == -1)
-            return "";
-
-        int colonPos = json.indexOf(":", keyPos);
-        int commaPos = json.indexOf(",", colonPos);
-        if (commaPos == -1)
-            commaPos = json.length();
-
-        String value = json.substring(colonPos + 1, commaPos).trim();
-        return value.replaceAll("\"", "").trim();
-    }
-
-    private static int extractInt(String json, String key) {
-        String value = extractValue(json, key);
-        if (value.isEmpty())
-            return 0;
-        return Integer.parseInt(value);
-    }
-
-    private static int findMatchingBracket(String str, int start) {
-        int count = 1;
-        for (int i = start + 1; i < str.length(); i++) {
-            if (str.charAt(i) == '[')
-                count++;
-            if (str.charAt(i) == ']')
-                count--;
-            if (count == 0)
-                return i;
-        }
-        return str.length();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+import java.io.*;
+import java.util.*;
+
+// Seeded synthetic workload source. Processes are produced one at a time in arrival order,
+// so arbitrarily large workloads can be fed to a consumer or written to disk without ever
+// holding the whole set in memory. The same seed and settings always give the same workload.
+//
+//   java WorkloadGenerator -n 1000000 [-s seed] [-a meanInterarrival] [-b exponential|pareto|bimodal|uniform]
+//                          [-m meanBurst] [-p maxPriority] [-q minQuantum,maxQuantum] [-io ioBursts,meanIo]
+//                          [-o file.json]
+//
+// With -io every process does ioBursts I/O bursts (exponential, mean meanIo) between ioBursts + 1
+// CPU bursts, each drawn like a single burst would be.
+public class WorkloadGenerator implements Iterator<AGProcess> {
+
+    enum BurstDistribution { UNIFORM, EXPONENTIAL, PARETO, BIMODAL }
+
+    // Arrivals are a Poisson process: exponential gaps with this mean
+    double meanInterarrival = 10;
+    BurstDistribution bursts = BurstDistribution.EXPONENTIAL;
+    double meanBurst = 10;
+    double paretoShape = 1.5;
+    // Bimodal: this share of short jobs with mean shortBurst, the rest long jobs with mean longBurst
+    double shortShare = 0.8;
+    double shortBurst = 3;
+    double longBurst = 40;
+    int maxBurst = 1_000_000;
+    int maxPriority = 10;
+    int minQuantum = 2;
+    int maxQuantum = 10;
+    int ioBursts = 0;
+    double meanIo = 20;
+
+    private final int count;
+    private final Random random;
+    private int generated = 0;
+    private double clock = 0;
+
+    public WorkloadGenerator(int count, long seed) {
+        this.count = count;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return generated < count;
+    }
+
+    @Override
+    public AGProcess next() {
+        AGProcess[] next = new AGProcess[1];
+        generate((name, arrival, burst, priority, quantum) -> next[0] = new AGProcess(name, arrival, burst, priority, quantum));
+        return next[0];
+    }
+
+    public List<AGProcess> toList() {
+        List<AGProcess> processes = new ArrayList<>(count - generated);
+        forEachRemaining(processes::add);
+        return processes;
+    }
+
+    // Hands the remaining processes over as plain column values, without creating objects
+    public void generateInto(WorkloadReader.ProcessConsumer consumer) {
+        while (hasNext()) {
+            generate(consumer);
+        }
+    }
+
+    public ProcessTable toTable() {
+        ProcessTable table = new ProcessTable(count - generated);
+        generateInto(table);
+        return table;
+    }
+
+    private void generate(WorkloadReader.ProcessConsumer consumer) {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (generated > 0) {
+            clock += exponential(meanInterarrival);
+        }
+        int arrival = (int) Math.min(clock, Integer.MAX_VALUE);
+        int burst = burst();
+        int[] bursts = null;
+        if (ioBursts > 0) {
+            bursts = new int[2 * ioBursts + 1];
+            bursts[0] = burst;
+            for (int i = 1; i < bursts.length; i += 2) {
+                bursts[i] = (int) Math.max(1, Math.min(maxBurst, Math.round(exponential(meanIo))));
+                bursts[i + 1] = burst();
+            }
+        }
+        int priority = 1 + random.nextInt(maxPriority);
+        int quantum = minQuantum + random.nextInt(maxQuantum - minQuantum + 1);
+        generated++;
+        if (bursts == null) {
+            consumer.accept("P" + generated, arrival, burst, priority, quantum);
+        } else {
+            consumer.accept("P" + generated, arrival, bursts, priority, quantum);
+        }
+    }
+
+    // Writes the remaining processes in the same schema as the files under OtherSchedulers/ and AG/,
+    // one process per line (generated names never need escaping)
+    public void writeJson(Writer out, int contextSwitch, int rrQuantum, int agingInterval) throws IOException {
+        out.write("{\n  \"name\": \"Generated workload: " + count + " processes, "
+                + bursts.name().toLowerCase() + " bursts\",\n");
+        out.write("  \"input\": {\n");
+        out.write("    \"contextSwitch\": " + contextSwitch + ",\n");
+        out.write("    \"rrQuantum\": " + rrQuantum + ",\n");
+        out.write("    \"agingInterval\": " + agingInterval + ",\n");
+        out.write("    \"processes\": [");
+        WorkloadReader.ProcessConsumer line = new WorkloadReader.ProcessConsumer() {
+            boolean first = true;
+
+            @Override
+            public void accept(String name, int arrival, int burst, int priority, int quantum) {
+                write(name, arrival, "\"burst\": " + burst, priority, quantum);
+            }
+
+            @Override
+            public void accept(String name, int arrival, int[] bursts, int priority, int quantum) {
+                write(name, arrival, "\"bursts\": " + Arrays.toString(bursts), priority, quantum);
+            }
+
+            private void write(String name, int arrival, String bursts, int priority, int quantum) {
+                try {
+                    out.write(first ? "\n" : ",\n");
+                    out.write("      {\"name\": \"" + name + "\", \"arrival\": " + arrival + ", " + bursts
+                            + ", \"priority\": " + priority + ", \"quantum\": " + quantum + "}");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                first = false;
+            }
+        };
+        while (hasNext()) {
+            generate(line);
+        }
+        out.write("\n    ]\n  }\n}\n");
+        out.flush();
+    }
+
+    private int burst() {
+        double value = switch (bursts) {
+            case UNIFORM -> 1 + random.nextDouble() * (2 * meanBurst - 1);
+            case EXPONENTIAL -> exponential(meanBurst);
+            // scale chosen so the mean is meanBurst (shape must be > 1 for a finite mean)
+            case PARETO -> meanBurst * (paretoShape - 1) / paretoShape * Math.pow(1 - random.nextDouble(), -1 / paretoShape);
+            case BIMODAL -> exponential(random.nextDouble() < shortShare ? shortBurst : longBurst);
+        };
+        return (int) Math.max(1, Math.min(maxBurst, Math.round(value)));
+    }
+
+    private double exponential(double mean) {
+        return -Math.log(1 - random.nextDouble()) * mean;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = 1000;
+        long seed = 42;
+        String out = null;
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i], args[i + 1]);
+        }
+        if (options.containsKey("-n")) count = Integer.parseInt(options.get("-n"));
+        if (options.containsKey("-s")) seed = Long.parseLong(options.get("-s"));
+        if (options.containsKey("-o")) out = options.get("-o");
+
+        WorkloadGenerator generator = new WorkloadGenerator(count, seed);
+        if (options.containsKey("-a")) generator.meanInterarrival = Double.parseDouble(options.get("-a"));
+        if (options.containsKey("-b")) generator.bursts = BurstDistribution.valueOf(options.get("-b").toUpperCase());
+        if (options.containsKey("-m")) generator.meanBurst = Double.parseDouble(options.get("-m"));
+        if (options.containsKey("-p")) generator.maxPriority = Integer.parseInt(options.get("-p"));
+        if (options.containsKey("-q")) {
+            String[] range = options.get("-q").split(",");
+            generator.minQuantum = Integer.parseInt(range[0]);
+            generator.maxQuantum = Integer.parseInt(range[1]);
+        }
+        if (options.containsKey("-io")) {
+            String[] io = options.get("-io").split(",");
+            generator.ioBursts = Integer.parseInt(io[0]);
+            generator.meanIo = Double.parseDouble(io[1]);
+        }
+
+        Writer writer = out == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out))
+                : new BufferedWriter(new FileWriter(out), 1 << 16);
+        generator.writeJson(writer, 1, 4, 5);
+        if (out != null) {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import java.io.*;
+import java.util.*;
+import com.google.gson.stream.JsonReader;
+
+// Streaming reader for workload files in the OtherSchedulers/ and AG/ schema.
+// Each process is handed over as soon as its object has been parsed, so the file is never held
+// in memory as a string or a tree, and the expectedOutput block is skipped without being bound.
+//
+// A process that does I/O gives "bursts": [cpu, io, cpu, ..., cpu] instead of "burst"; the
+// devices serving the I/O bursts are set by "ioDevices" and "ioPolicy" (FCFS or SSTF) next to
+// the other settings, see IoDevices.
+public class WorkloadReader {
+
+    interface ProcessConsumer {
+        void accept(String name, int arrival, int burst, int priority, int quantum);
+
+        // bursts alternates CPU and I/O bursts; consumers without an I/O model only take one CPU burst
+        default void accept(String name, int arrival, int[] bursts, int priority, int quantum) {
+            if (bursts.length != 1) {
+                throw new IllegalArgumentException(name + " has I/O bursts, which this reader cannot take");
+            }
+            accept(name, arrival, bursts[0], priority, quantum);
+        }
+    }
+
+    // Settings from the "input" object, 0 when the file does not specify them
+    int contextSwitch;
+    int rrQuantum;
+    int agingInterval;
+    int ioDevices;
+    String ioPolicy;
+
+    public void read(File file, ProcessConsumer consumer) throws IOException {
+        try (JsonReader json = new JsonReader(new BufferedReader(new FileReader(file), 1 << 16))) {
+            read(json, consumer);
+        }
+    }
+
+    public void read(JsonReader json, ProcessConsumer consumer) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals("input")) {
+                readInput(json, consumer);
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+    }
+
+    public List<Process> readProcesses(File file) throws IOException {
+        List<Process> processes = new ArrayList<>();
+        read(file, (name, arrival, burst, priority, quantum) ->
+                processes.add(new Process(name, arrival, burst, priority)));
+        return processes;
+    }
+
+    public List<AGProcess> readAGProcesses(File file) throws IOException {
+        List<AGProcess> processes = new ArrayList<>();
+        read(file, (name, arrival, burst, priority, quantum) ->
+                processes.add(new AGProcess(name, arrival, burst, priority, quantum)));
+        return processes;
+    }
+
+    private void readInput(JsonReader json, ProcessConsumer consumer) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "contextSwitch" -> contextSwitch = json.nextInt();
+                case "rrQuantum" -> rrQuantum = json.nextInt();
+                case "agingInterval" -> agingInterval = json.nextInt();
+                case "ioDevices" -> ioDevices = json.nextInt();
+                case "ioPolicy" -> ioPolicy = json.nextString();
+                case "processes" -> readProcessArray(json, consumer);
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+    }
+
+    private static void readProcessArray(JsonReader json, ProcessConsumer consumer) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            String name = null;
+            int arrival = 0, burst = 0, priority = 0, quantum = 0;
+            IntList bursts = null;
+
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "name" -> name = json.nextString();
+                    case "arrival" -> arrival = json.nextInt();
+                    case "burst" -> burst = json.nextInt();
+                    case "priority" -> priority = json.nextInt();
+                    case "quantum" -> quantum = json.nextInt();
+                    case "bursts" -> {
+                        bursts = new IntList();
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            bursts.add(json.nextInt());
+                        }
+                        json.endArray();
+                    }
+                    default -> json.skipValue();
+                }
+            }
+            json.endObject();
+
+            if (bursts == null) {
+                consumer.accept(name, arrival, burst, priority, quantum);
+            } else {
+                consumer.accept(name, arrival, bursts.toArray(), priority, quantum);
+            }
+        }
+        json.endArray();
+    }
+}
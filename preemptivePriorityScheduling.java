@@ -1,10 +1,14 @@
+import java.io.*;
 import java.util.*;
 
-public class preemptivePriorityScheduling {
+public class preemptivePriorityScheduling implements Scheduler {
     List<Process> processes = new ArrayList<>();
     List<Process> executionOrder = new ArrayList<>();
     int agingInterval;
     int contextSwitch;
+    ProcessTable table;
+    private final Timeline timeline = new Timeline();
+    private SchedulerMetrics metrics;
 
     public preemptivePriorityScheduling(List<Process> inputProcesses, int agingInterval , int contextSwitch) {
         this.agingInterval = agingInterval;
@@ -14,96 +18,215 @@ public class preemptivePriorityScheduling {
         }
     }
 
-    public void execute() {
-        PriorityQueue<Process> queue = new PriorityQueue<>(
-                (p1, p2) -> {
-                    if (p1.priority != p2.priority)
-                        return Integer.compare(p1.priority, p2.priority);
-                    else if (p1.arrivalTime != p2.arrivalTime)
-                        return Integer.compare(p1.arrivalTime, p2.arrivalTime);
-                    return p1.name.compareTo(p2.name);
-                }
-        );
+    // Runs directly on the table's columns; processes and executionOrder stay empty
+    public preemptivePriorityScheduling(ProcessTable table, int agingInterval, int contextSwitch) {
+        this.agingInterval = agingInterval;
+        this.contextSwitch = contextSwitch;
+        this.table = table;
+    }
 
-        processes.sort(Comparator.comparingInt(p -> p.arrivalTime));
+    public preemptivePriorityScheduling(int agingInterval, int contextSwitch) {
+        this.agingInterval = agingInterval;
+        this.contextSwitch = contextSwitch;
+    }
+
+    @Override
+    public String name() {
+        return "Priority";
+    }
+
+    @Override
+    public ScheduleResult schedule(ProcessTable table) {
+        timeline.clear();
+        run(table, timeline);
+        return ScheduleResult.of(name(), table, timeline);
+    }
+
+    @Override
+    public Scheduler withMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
 
-        int currentTime = processes.getFirst().arrivalTime;
-        int i = 0;
-        while (i < processes.size() && processes.get(i).arrivalTime == currentTime) {
-            queue.add(processes.get(i));
-            i++;
-        }
-
-        String lastProcess = "";
-        List<Process> arrivedProcesses = new ArrayList<>();
-        String curName = "";
-
-        while (!queue.isEmpty() || i < processes.size()) {
-            Process current = null;
-            curName = "Null";
-            if (!queue.isEmpty())
-            {
-                current = queue.poll();
-                executionOrder.add(current);
-                curName = current.name;
+    public void execute() {
+        if (table != null) {
+            run(table, null);
+            return;
+        }
+        processes.sort(Comparator.comparingInt(p -> p.arrivalTime));
+        ProcessTable sorted = ProcessTable.of(processes);
+        timeline.clear();
+        run(sorted, timeline);
+        sorted.copyResultsTo(processes);
+        // a context switch counts as a pick of the incoming process, even if another one
+        // arrives during the switch and is picked instead
+        for (int i = 0; i < timeline.size; i++) {
+            if (timeline.process[i] >= 0) {
+                executionOrder.add(processes.get(timeline.process[i]));
             }
-            if (current != null && lastProcess.isEmpty())
-                lastProcess = current.name;
-            else if (!lastProcess.equals(curName) && !lastProcess.equals("Null")) {
-                lastProcess = curName;
-                if (!curName.equals("Null")) {
-                    queue.add(current);
-                }
+        }
+    }
+
+    private void run(ProcessTable table, Timeline timeline) {
+        table.reset();
+        new Run(table, agingInterval, contextSwitch, timeline).withMetrics(metrics).submitAll().advance(Integer.MAX_VALUE);
+    }
+
+    private static final int NONE = -2; // nothing has run yet
+    private static final int IDLE = -1; // CPU had nothing to run
+
+    // Resumable priority core, see SchedulerRun. Moves one tick at a time while a process runs,
+    // since aging can reorder the queue on any tick; idle stretches and context switches are
+    // crossed in one step. Arrivals are admitted right before each pick (the queue order does
+    // not depend on when they were added).
+    static class Run extends SchedulerRun {
+        final int contextSwitch;
+        final AgingReadyQueue queue;
+        int lastProcess = NONE;
+        int lastRan = IDLE; // process that ran the previous tick
+
+        Run(ProcessTable table, int agingInterval, int contextSwitch, Timeline timeline) {
+            super(table, timeline);
+            this.contextSwitch = contextSwitch;
+            this.queue = new AgingReadyQueue(table, agingInterval);
+        }
 
-                for (int j = 0; j < contextSwitch; j++) {
-                    currentTime++;
-                    arrivedProcesses = new ArrayList<>(queue);
-                    queue.clear();
-                    for (Process p : arrivedProcesses) {
-                        if ((currentTime - p.tempArrivalTime) % agingInterval == 0) {
-                            p.priority = Math.max(1, p.priority - 1);
-                        }
-                        queue.add(p);
+        @Override
+        void advance(int limit) {
+            int[] remaining = table.remaining;
+
+            while (true) {
+                if (time >= limit)
+                    return;
+                while (arrivals.peekTime() <= time)
+                    queue.add(arrivals.poll());
+
+                if (queue.isEmpty()) {
+                    // Nothing left for now; whether a switch to idle follows depends on
+                    // whether anything else arrives at all
+                    if (arrivals.isEmpty())
+                        return;
+                    if (lastProcess == NONE || lastProcess == IDLE) {
+                        if (arrivals.peekTime() >= limit)
+                            return;
+                        if (metrics != null)
+                            metrics.idle(time, arrivals.peekTime());
+                        time = arrivals.peekTime();
+                        lastRan = IDLE;
+                        continue;
                     }
+                }
 
-                    while (i < processes.size() && processes.get(i).arrivalTime == currentTime) {
-                        queue.add(processes.get(i));
-                        i++;
+                int current = queue.isEmpty() ? IDLE : queue.poll(time);
+                if (current != IDLE && lastProcess == NONE)
+                    lastProcess = current;
+                else if (lastProcess != current && lastProcess != IDLE) {
+                    int previous = lastProcess;
+                    lastProcess = current;
+                    if (current != IDLE) {
+                        queue.add(current);
+                    }
+                    if (timeline != null) {
+                        timeline.end(Timeline.PRIORITY);
+                        timeline.contextSwitch(current, time, time + contextSwitch);
                     }
+                    if (metrics != null) {
+                        if (previous >= 0 && remaining[previous] > 0)
+                            metrics.preempted(Timeline.PRIORITY);
+                        metrics.contextSwitch(contextSwitch);
+                    }
+                    time += contextSwitch;
+                    continue;
                 }
 
-                continue;
-            }
-            currentTime++;
-            if (current != null)
-                current.remainingTime--;
+                if (metrics != null && current != lastRan)
+                    metrics.dispatch(table, current, time, queue.size());
+                lastRan = current;
+                if (timeline != null) {
+                    // once the CPU has been idle, later switches happen without a context switch
+                    if (timeline.running() != current)
+                        timeline.end(Timeline.PRIORITY);
+                    timeline.run(current, time, time + 1);
+                }
+                time++;
+                remaining[current]--;
 
-            arrivedProcesses = new ArrayList<>(queue);
-            queue.clear();
-            for (Process p : arrivedProcesses) {
-                if ((currentTime - p.tempArrivalTime) % agingInterval == 0) {
-                    p.priority = Math.max(1, p.priority - 1);
+                if (remaining[current] > 0) {
+                    table.agingAnchor[current] = time;
+                    queue.add(current);
+                } else if (burstDone(current, time)) {
+                    if (timeline != null)
+                        timeline.end(Timeline.COMPLETION);
+                } else {
+                    // off to I/O: when it is back it has to be dispatched again
+                    lastRan = IDLE;
+                    if (timeline != null)
+                        timeline.end(Timeline.BLOCKED);
                 }
-                queue.add(p);
             }
+        }
 
-            while (i < processes.size() && processes.get(i).arrivalTime == currentTime) {
-                queue.add(processes.get(i));
-                i++;
-            }
+        // The running process stays in the queue between ticks
+        @Override
+        void saveState(DataOutput out) throws IOException {
+            out.writeInt(lastProcess);
+            out.writeInt(lastRan);
+            queue.save(out);
+        }
 
-            if (current == null)
-                continue;
-            if (current.remainingTime > 0) {
-                current.tempArrivalTime = currentTime;
-                queue.add(current);
-            } else {
-                current.completionTime = currentTime;
-                current.turnaroundTime = current.completionTime - current.arrivalTime;
-                current.waitingTime = current.turnaroundTime - current.burstTime;
+        @Override
+        void restoreState(DataInput in) throws IOException {
+            lastProcess = in.readInt();
+            lastRan = in.readInt();
+            queue.restore(in);
+        }
+
+        @Override
+        void resetState() {
+            lastProcess = NONE;
+            lastRan = IDLE;
+            queue.clear();
+        }
+
+        @Override
+        int readyCount() {
+            return queue.size() - (runningProcess() == -1 ? 0 : 1);
+        }
+
+        @Override
+        int runningProcess() {
+            return lastRan >= 0 && table.remaining[lastRan] > 0 ? lastRan : -1;
+        }
+
+        // Aging can reorder the queue on any tick, so only a process running alone looks ahead
+        @Override
+        int nextEvent() {
+            int running = runningProcess();
+            if (running != -1 && readyCount() == 0)
+                return time + table.remaining[running];
+            return queue.isEmpty() ? Integer.MAX_VALUE : time;
+        }
+
+        @Override
+        int steal() {
+            if (readyCount() == 0)
+                return -1;
+            int id = queue.poll(time);
+            if (id == runningProcess()) {
+                int next = queue.poll(time);
+                queue.add(id);
+                id = next;
             }
+            return id;
+        }
+
+        // Aging goes on from the agingAnchor it had on the other core
+        @Override
+        void adopt(int id) {
+            queue.add(id);
         }
     }
+
     public void printExecutionOrder() {
         System.out.print("Execution Order: ");
         String lstProcess = "";